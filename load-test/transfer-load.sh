@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+# Compares /api/v1/transactions/transfer throughput and p99 latency between the default
+# platform-thread pool and the virtual-threads profile. Transfers go between random pairs of
+# ACCOUNTS accounts, and both runs use the same Hikari pool size so only the threading differs.
+# Requires Java 21, Maven and wrk (https://github.com/wg/wrk).
+# Usage: load-test/transfer-load.sh [duration] [concurrency] [accounts] [pool-size]
+set -euo pipefail
+
+DURATION=${1:-30s}
+CONCURRENCY=${2:-200}
+export ACCOUNTS=${3:-1000}
+POOL_SIZE=${4:-64}
+PORT=8080
+BASE_URL="http://localhost:${PORT}/api/v1"
+ROOT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+RESULTS_DIR="${ROOT_DIR}/target/load-test"
+SCRIPT="${ROOT_DIR}/load-test/transfer.lua"
+
+mkdir -p "${RESULTS_DIR}"
+(cd "${ROOT_DIR}" && ./mvnw -q -Pjava21 -DskipTests package)
+JAR=$(ls "${ROOT_DIR}"/target/banking-*.jar | head -n 1)
+
+{
+    echo "account_number,balance"
+    for i in $(seq 1 "${ACCOUNTS}"); do
+        echo "load-${i},1000000000"
+    done
+} > "${RESULTS_DIR}/accounts.csv"
+
+run() {
+    local mode=$1
+    local profiles=$2
+
+    java -jar "${JAR}" --spring.profiles.active="${profiles}" --server.port="${PORT}" \
+        --spring.datasource.hikari.maximum-pool-size="${POOL_SIZE}" \
+        --spring.datasource.hikari.minimum-idle="${POOL_SIZE}" \
+        --logging.level.web=info --spring.jpa.show-sql=false > "${RESULTS_DIR}/${mode}-app.log" 2>&1 &
+    local pid=$!
+    trap "kill ${pid} 2>/dev/null || true" RETURN
+
+    until curl -sf "http://localhost:${PORT}/actuator/health" > /dev/null; do
+        sleep 1
+    done
+
+    curl -sf -X POST "${BASE_URL}/accounts/import" -H 'Content-Type: text/csv' \
+        --data-binary "@${RESULTS_DIR}/accounts.csv" > /dev/null
+
+    wrk -t 4 -c "${CONCURRENCY}" -d 5s -s "${SCRIPT}" "${BASE_URL}/transactions/transfer" > /dev/null
+    wrk -t 4 -c "${CONCURRENCY}" -d "${DURATION}" --latency -s "${SCRIPT}" \
+        "${BASE_URL}/transactions/transfer" > "${RESULTS_DIR}/${mode}.txt"
+
+    echo "${mode}: $(grep 'Requests/sec' "${RESULTS_DIR}/${mode}.txt" | xargs), p99 $(grep ' 99%' "${RESULTS_DIR}/${mode}.txt" | xargs)"
+}
+
+run platform-threads default
+run virtual-threads virtual-threads
@@ -0,0 +1,26 @@
+-- wrk script for transfer-load.sh: every request moves 1 between a random pair of the
+-- load-1 .. load-N accounts, so the run measures the server rather than one hot account pair.
+local accounts = tonumber(os.getenv("ACCOUNTS") or "1000")
+local thread_id = 0
+
+wrk.method = "POST"
+wrk.headers["Content-Type"] = "application/json"
+
+setup = function(thread)
+    thread_id = thread_id + 1
+    thread:set("id", thread_id)
+end
+
+init = function(args)
+    math.randomseed(os.time() * 1000 + id)
+end
+
+request = function()
+    local from = math.random(accounts)
+    local to = math.random(accounts - 1)
+    if to >= from then
+        to = to + 1
+    end
+    return wrk.format(nil, nil, nil,
+        string.format('{"fromAccount":"load-%d","toAccount":"load-%d","amount":1}', from, to))
+end
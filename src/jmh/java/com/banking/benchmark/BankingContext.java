@@ -0,0 +1,84 @@
+package com.banking.benchmark;
+
+import com.banking.BankingApplication;
+import com.banking.account.AccountCreateDto;
+import com.banking.account.AccountService;
+import com.banking.transaction.TransactionService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Application context backed by the embedded H2 database, shared by all benchmark threads.
+ * {@code contention=hot} sends every operation to the same accounts, {@code spread} picks
+ * accounts uniformly from {@link #ACCOUNTS}. {@code ledger=true} runs the service in
+ * append-only ledger mode.
+ */
+@State(Scope.Benchmark)
+public class BankingContext {
+
+    static final int ACCOUNTS = 1024;
+    static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Param({"hot", "spread"})
+    public String contention;
+
+    @Param({"false", "true"})
+    public String ledger;
+
+    ConfigurableApplicationContext context;
+    TransactionService transactionService;
+    AccountService accountService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn",
+                        "logging.level.web=warn",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark",
+                        "banking.ledger.enabled=" + ledger)
+                .run();
+        transactionService = context.getBean(TransactionService.class);
+        accountService = context.getBean(AccountService.class);
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountService.createAccount(new AccountCreateDto(accountNumber(i), BigDecimal.valueOf(1_000_000_000L)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    String account() {
+        return "hot".equals(contention) ? accountNumber(0) : accountNumber(ThreadLocalRandom.current().nextInt(ACCOUNTS));
+    }
+
+    String otherAccount(String accountNumber) {
+        if ("hot".equals(contention)) {
+            return accountNumber(1);
+        }
+        String other;
+        do {
+            other = accountNumber(ThreadLocalRandom.current().nextInt(ACCOUNTS));
+        } while (other.equals(accountNumber));
+        return other;
+    }
+
+    static String accountNumber(int index) {
+        return "bench-" + index;
+    }
+}
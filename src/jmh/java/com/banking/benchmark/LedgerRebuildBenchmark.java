@@ -0,0 +1,107 @@
+package com.banking.benchmark;
+
+import com.banking.BankingApplication;
+import com.banking.account.Account;
+import com.banking.account.AccountCreateDto;
+import com.banking.account.AccountService;
+import com.banking.ledger.Ledger;
+import com.banking.ledger.LedgerEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to rebuild one balance from its snapshot plus a ledger tail of {@code tail} entries,
+ * and from the full history of {@code history} entries without any snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerRebuildBenchmark {
+
+    private static final String ACCOUNT = "ledger-0";
+
+    @Param({"100000"})
+    public int history;
+
+    @Param({"10", "1000"})
+    public int tail;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private Ledger ledger;
+    private BigDecimal openingBalance;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn",
+                        "logging.level.web=warn",
+                        "spring.datasource.url=jdbc:h2:mem:ledger-benchmark",
+                        "banking.ledger.enabled=true",
+                        "banking.ledger.snapshot-interval-ms=3600000")
+                .run();
+        accountService = context.getBean(AccountService.class);
+        ledger = context.getBean(Ledger.class);
+
+        openingBalance = accountService.createAccount(new AccountCreateDto(ACCOUNT, BigDecimal.ONE)).getBalance();
+        append(history - tail);
+        BigDecimal snapshot = ledger.balanceOf(ACCOUNT, openingBalance, 0L);
+        accountService.snapshotBalance(ACCOUNT, snapshot, ledger.lastEntryIdOf(ACCOUNT));
+        append(tail);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public BigDecimal rebuildFromSnapshot() {
+        Account account = accountService.getAccount(ACCOUNT);
+        return ledger.balanceOf(ACCOUNT, account.getBalance(), account.getLedgerPosition());
+    }
+
+    @Benchmark
+    public BigDecimal rebuildFromHistory() {
+        return ledger.balanceOf(ACCOUNT, openingBalance, 0L);
+    }
+
+    private void append(int entries) {
+        List<LedgerEntry> chunk = new ArrayList<>(1000);
+        for (int i = 0; i < entries; i++) {
+            chunk.add(ledger.entry(ACCOUNT, BigDecimal.ONE));
+            if (chunk.size() == 1000) {
+                ledger.append(chunk);
+                chunk = new ArrayList<>(1000);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            ledger.append(chunk);
+        }
+    }
+}
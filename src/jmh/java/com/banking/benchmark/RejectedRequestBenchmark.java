@@ -0,0 +1,79 @@
+package com.banking.benchmark;
+
+import com.banking.error.ApiError;
+import com.banking.error.ApiErrorHandler;
+import com.banking.transaction.TransactionController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Cost of rejecting a request. {@code throwResponseStatusException} and {@code throwApiError}
+ * compare raising the old stack-capturing error with the preallocated one;
+ * {@code rejectDeposit} sends an invalid deposit through the MVC stack to the controller, which
+ * rejects it before any service is touched.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RejectedRequestBenchmark {
+
+    private final byte[] invalidDeposit = "{\"fromAccount\":\"123456\",\"amount\":-1}".getBytes();
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new TransactionController(null, null, null, null, null, null))
+                .setControllerAdvice(new ApiErrorHandler())
+                .build();
+    }
+
+    @Benchmark
+    public HttpStatusCode throwResponseStatusException() {
+        try {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid amount");
+        } catch (ResponseStatusException e) {
+            return e.getStatusCode();
+        }
+    }
+
+    @Benchmark
+    public HttpStatusCode throwApiError() {
+        try {
+            throw ApiError.INVALID_AMOUNT;
+        } catch (ApiError e) {
+            return e.getStatus();
+        }
+    }
+
+    @Benchmark
+    public int rejectDeposit() throws Exception {
+        return mockMvc.perform(post("/api/v1/transactions/deposit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(invalidDeposit))
+                .andReturn()
+                .getResponse()
+                .getStatus();
+    }
+}
@@ -0,0 +1,40 @@
+package com.banking.benchmark;
+
+import com.banking.transaction.TransactionDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionDtoJsonBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TransactionDto transactionDto = new TransactionDto("123456", "654321", new BigDecimal("300.00"));
+    private final byte[] json = "{\"fromAccount\":\"123456\",\"toAccount\":\"654321\",\"amount\":300.00}".getBytes();
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transactionDto);
+    }
+
+    @Benchmark
+    public TransactionDto deserialize() throws Exception {
+        return objectMapper.readValue(json, TransactionDto.class);
+    }
+}
@@ -0,0 +1,43 @@
+package com.banking.benchmark;
+
+import com.banking.account.AccountView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class TransactionServiceBenchmark {
+
+    @Benchmark
+    public void deposit(BankingContext banking) {
+        banking.transactionService.deposit(banking.account(), BankingContext.AMOUNT);
+    }
+
+    @Benchmark
+    public void withdraw(BankingContext banking) {
+        banking.transactionService.withdraw(banking.account(), BankingContext.AMOUNT);
+    }
+
+    @Benchmark
+    public void transfer(BankingContext banking) {
+        String from = banking.account();
+        banking.transactionService.transfer(from, banking.otherAccount(from), BankingContext.AMOUNT);
+    }
+
+    @Benchmark
+    public AccountView getAccountInfo(BankingContext banking) {
+        return banking.accountService.getAccountInfo(banking.account());
+    }
+}
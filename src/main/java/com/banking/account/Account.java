@@ -1,13 +1,20 @@
 package com.banking.account;
 
+import com.banking.id.PooledSequenceGenerator;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.math.BigDecimal;
 
@@ -16,11 +23,25 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 @Builder
 @Entity
+@Table(indexes = {
+        @Index(name = "ux_account_account_number", columnList = "accountNumber", unique = true),
+        @Index(name = "idx_account_parent_account_number", columnList = "parentAccountNumber")
+})
 public class Account {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "account_seq")
+    @GenericGenerator(name = "account_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "account_seq"))
     private Long id;
 
+    @Column(nullable = false)
     private String accountNumber;
     private BigDecimal balance; //may be double
+
+    private String parentAccountNumber;
+    private Integer buckets;
+    private Long ledgerPosition;
+
+    @Version
+    private Long version;
 }
@@ -0,0 +1,6 @@
+package com.banking.account;
+
+import java.math.BigDecimal;
+
+public record AccountBalance(Long id, String accountNumber, BigDecimal balance) {
+}
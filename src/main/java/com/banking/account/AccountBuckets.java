@@ -0,0 +1,44 @@
+package com.banking.account;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Naming of sub-balance buckets. Bucket 0 is the account row itself, the others are
+ * child rows named {@code <accountNumber>#<bucket>}, so the balance is the sum of all of them.
+ */
+public final class AccountBuckets {
+
+    public static final char SEPARATOR = '#';
+    public static final int MAX_BUCKETS = 64;
+
+    private AccountBuckets() {
+    }
+
+    /**
+     * Whether the value can be used to address an account. Bucket rows live in the same table but
+     * are only changed through their parent account.
+     */
+    public static boolean isAccountNumber(String value) {
+        return StringUtils.isNotBlank(value) && value.indexOf(SEPARATOR) < 0;
+    }
+
+    public static int countOf(Account account) {
+        return account.getBuckets() == null ? 1 : account.getBuckets();
+    }
+
+    public static String keyOf(String accountNumber, int bucket) {
+        return bucket == 0 ? accountNumber : accountNumber + SEPARATOR + bucket;
+    }
+
+    public static List<String> keysOf(String accountNumber, int buckets) {
+        return IntStream.range(0, buckets).mapToObj(bucket -> keyOf(accountNumber, bucket)).toList();
+    }
+
+    public static String parentOf(String key) {
+        int separator = key.indexOf(SEPARATOR);
+        return separator < 0 ? key : key.substring(0, separator);
+    }
+}
@@ -1,45 +1,146 @@
 package com.banking.account;
 
+import com.banking.balance.HotAccountBuckets;
+import com.banking.error.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/accounts")
 @RequiredArgsConstructor
 public class AccountController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final AccountService accountService;
+    private final HotAccountBuckets hotAccountBuckets;
+    private final ObjectMapper objectMapper;
+    private final BalanceExporter balanceExporter;
+    private final AccountImporter accountImporter;
 
     @PostMapping
-    public ResponseEntity<Account> createAccount(@RequestBody AccountCreateDto accountCreateDto) {
-        if (StringUtils.isNotBlank(accountCreateDto.getAccountNumber())) {
-            if (!accountCreateDto.getInitialBalance().equals(BigDecimal.ZERO)) {
-
-                return new ResponseEntity<>(accountService.createAccount(accountCreateDto), HttpStatus.CREATED);
-            }
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid initial balance");
+    public ResponseEntity<AccountView> createAccount(@RequestBody AccountCreateDto accountCreateDto) {
+        if (StringUtils.isBlank(accountCreateDto.getAccountNumber())
+                || accountCreateDto.getAccountNumber().indexOf(AccountBuckets.SEPARATOR) >= 0) {
+            throw ApiError.INVALID_ACCOUNT_NUMBER;
         }
-        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid account number");
+        if (accountCreateDto.getInitialBalance() == null || accountCreateDto.getInitialBalance().equals(BigDecimal.ZERO)) {
+            throw ApiError.INVALID_INITIAL_BALANCE;
+        }
+        return new ResponseEntity<>(AccountView.of(accountService.createAccount(accountCreateDto)), HttpStatus.CREATED);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<AccountImportReport> importCsv(BufferedReader body) throws IOException {
+        return ResponseEntity.ok(accountImporter.importAccounts(body, AccountImporter.Format.CSV, new AccountImporter.Listener() {
+        }));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<AccountImportReport> importNdjson(BufferedReader body) throws IOException {
+        return ResponseEntity.ok(accountImporter.importAccounts(body, AccountImporter.Format.NDJSON, new AccountImporter.Listener() {
+        }));
     }
 
     @GetMapping("/{accountNumber}")
-    public ResponseEntity<Account> getAccountInfo(@PathVariable String accountNumber) {
-        if (StringUtils.isNotBlank(accountNumber)) {
-            return ResponseEntity.ok(accountService.getAccountInfo(accountNumber));
+    public ResponseEntity<AccountView> getAccountInfo(@PathVariable String accountNumber) {
+        if (StringUtils.isBlank(accountNumber)) {
+            throw ApiError.INVALID_ACCOUNT_NUMBER;
+        }
+        return ResponseEntity.ok(accountService.getAccountInfo(accountNumber));
+    }
+
+    @PutMapping("/{accountNumber}/buckets")
+    public ResponseEntity<AccountView> enableBuckets(@PathVariable String accountNumber, @RequestParam int count) {
+        if (count <= 1 || count > AccountBuckets.MAX_BUCKETS) {
+            throw ApiError.INVALID_BUCKET_COUNT;
         }
-        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid account number");
+        return ResponseEntity.ok(hotAccountBuckets.enable(accountNumber, count));
     }
 
     @GetMapping
-    public ResponseEntity<List<Account>> getAllAccounts() {
-        return ResponseEntity.ok(accountService.getAllAccounts());
+    public ResponseEntity<List<AccountView>> getAllAccounts(@RequestParam(required = false) Long after,
+                                                            @RequestParam(defaultValue = "100") int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw ApiError.INVALID_PAGE_SIZE;
+        }
+        List<AccountView> accounts = accountService.getAccountsPage(after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (accounts.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(accounts.get(accounts.size() - 1).id()));
+        }
+        return response.body(accounts);
+    }
+
+    @GetMapping(params = "format=ndjson", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllAccounts() {
+        StreamingResponseBody body = outputStream -> accountService.streamAccounts(account -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(account));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(params = "format=csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv() throws IOException {
+        return export(BalanceExporter.Format.CSV, MediaType.parseMediaType("text/csv"), "balances.csv");
+    }
+
+    @GetMapping(params = "format=binary")
+    public ResponseEntity<StreamingResponseBody> exportBinary() throws IOException {
+        return export(BalanceExporter.Format.BINARY, MediaType.APPLICATION_OCTET_STREAM, "balances.bin");
     }
-}
 
+    /**
+     * Writes the export to a temporary file on the request thread first, so the response carries its
+     * length; the client gets its first byte only once the whole file is written. The file is then
+     * copied to the response and deleted. The servlet output stream is not a channel, so
+     * {@link FileChannel#transferTo} falls back to a copy through a user-space buffer here.
+     */
+    private ResponseEntity<StreamingResponseBody> export(BalanceExporter.Format format, MediaType mediaType,
+                                                         String filename) throws IOException {
+        Path file = balanceExporter.export(format);
+        long size = Files.size(file);
+        StreamingResponseBody body = outputStream -> {
+            try (FileChannel channel = FileChannel.open(file)) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                for (long position = 0; position < size; ) {
+                    position += channel.transferTo(position, size - position, target);
+                }
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .contentLength(size)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
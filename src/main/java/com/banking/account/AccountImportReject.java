@@ -0,0 +1,4 @@
+package com.banking.account;
+
+public record AccountImportReject(long line, String accountNumber, String reason) {
+}
@@ -0,0 +1,9 @@
+package com.banking.account;
+
+import java.util.List;
+
+/**
+ * Outcome of an import; {@code rejects} holds only the first rejected rows, {@code rejected} counts all of them.
+ */
+public record AccountImportReport(long read, long imported, long rejected, List<AccountImportReject> rejects) {
+}
@@ -0,0 +1,84 @@
+package com.banking.account;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Offline loader: when {@code banking.import.path} is set, the application imports that file once
+ * started, writes every rejected row to {@code <path>.rejects} and exits with status 1 if any row
+ * was rejected.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class AccountImportRunner implements ApplicationRunner {
+
+    private static final long PROGRESS_ROWS = 100_000;
+
+    private final AccountImporter accountImporter;
+    private final ApplicationContext applicationContext;
+    private final String path;
+    private final AccountImporter.Format format;
+
+    public AccountImportRunner(AccountImporter accountImporter,
+                               ApplicationContext applicationContext,
+                               @Value("${banking.import.path:}") String path,
+                               @Value("${banking.import.format:CSV}") AccountImporter.Format format) {
+        this.accountImporter = accountImporter;
+        this.applicationContext = applicationContext;
+        this.path = path;
+        this.format = format;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (path.isBlank()) {
+            return;
+        }
+        AccountImportReport report;
+        try (BufferedReader input = Files.newBufferedReader(Path.of(path), StandardCharsets.UTF_8);
+             BufferedWriter rejects = Files.newBufferedWriter(Path.of(path + ".rejects"), StandardCharsets.UTF_8)) {
+            rejects.write("line,account_number,reason");
+            rejects.newLine();
+            report = accountImporter.importAccounts(input, format, new AccountImporter.Listener() {
+                private long reported;
+
+                @Override
+                public void rejected(AccountImportReject reject) {
+                    try {
+                        rejects.write(reject.line() + "," + (reject.accountNumber() == null ? "" : reject.accountNumber())
+                                + "," + reject.reason());
+                        rejects.newLine();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void progress(long read, long imported, long rejected) {
+                    if (read - reported >= PROGRESS_ROWS) {
+                        reported = read;
+                        log.info("Read {} rows, imported {}, rejected {}", read, imported, rejected);
+                    }
+                }
+            });
+        }
+        log.info("Imported {} of {} rows, rejected {}", report.imported(), report.read(), report.rejected());
+        int status = SpringApplication.exit(applicationContext, () -> report.rejected() == 0 ? 0 : 1);
+        System.exit(status);
+    }
+}
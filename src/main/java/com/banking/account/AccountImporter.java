@@ -0,0 +1,334 @@
+package com.banking.account;
+
+import com.banking.balance.Money;
+import com.banking.error.ApiError;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates accounts in bulk from CSV ({@code account_number,balance}, the layout of the balance
+ * export, with the account number optionally quoted as in RFC 4180) or NDJSON
+ * ({@link AccountCreateDto} per line). The calling thread reads and validates the rows and drops
+ * account numbers it has already seen; chunks of new rows are inserted by parallel workers, one
+ * transaction and one batched insert per chunk. Rows whose account number already exists are
+ * rejected, every other row of the chunk is still imported.
+ */
+@Component
+@Profile("!reactive")
+public class AccountImporter {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    /**
+     * Called from the reading and the worker threads, one call at a time.
+     */
+    public interface Listener {
+
+        default void rejected(AccountImportReject reject) {
+        }
+
+        /**
+         * Called after every committed chunk.
+         */
+        default void progress(long read, long imported, long rejected) {
+        }
+    }
+
+    static final String MALFORMED_ROW = "Malformed row";
+    static final String DUPLICATE_ROW = "Duplicate account number";
+    private static final String CSV_HEADER = "account_number";
+
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int workers;
+    private final int maxReportedRejects;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    public AccountImporter(AccountRepository accountRepository,
+                           PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${banking.import.chunk-size:1000}") int chunkSize,
+                           @Value("${banking.import.workers:4}") int workers,
+                           @Value("${banking.import.max-reported-rejects:1000}") int maxReportedRejects) {
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+        this.maxReportedRejects = maxReportedRejects;
+        this.importedRows = meterRegistry.counter("banking.account.import.rows", "outcome", "imported");
+        this.rejectedRows = meterRegistry.counter("banking.account.import.rows", "outcome", "rejected");
+    }
+
+    /**
+     * Imports every row of the input and returns once all chunks are written. A failure other than
+     * a duplicate account number stops the import; chunks already committed stay imported.
+     */
+    public AccountImportReport importAccounts(BufferedReader input, Format format, Listener listener) throws IOException {
+        Run run = new Run(listener);
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, task -> {
+            Thread worker = new Thread(task, "account-import-" + threads.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        });
+        Semaphore pendingChunks = new Semaphore(workers * 2);
+        Set<String> seen = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        try {
+            long line = 0;
+            for (String text = input.readLine(); text != null; text = input.readLine()) {
+                long first = ++line;
+                if (text.isBlank() || (line == 1 && format == Format.CSV && text.startsWith(CSV_HEADER))) {
+                    continue;
+                }
+                // a quoted account number may span lines
+                while (format == Format.CSV && openQuote(text)) {
+                    String next = input.readLine();
+                    if (next == null) {
+                        break;
+                    }
+                    line++;
+                    text = text + "\n" + next;
+                }
+                run.read();
+                Row row = format == Format.CSV ? parseCsv(first, text) : parseJson(first, text);
+                String reason = row == null ? MALFORMED_ROW : validate(row);
+                if (reason == null && !seen.add(row.accountNumber())) {
+                    reason = DUPLICATE_ROW;
+                }
+                if (reason != null) {
+                    run.reject(first, row == null ? null : row.accountNumber(), reason);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    submit(executor, pendingChunks, chunk, run);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(executor, pendingChunks, chunk, run);
+            }
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+        run.rethrowFailure();
+        return run.report();
+    }
+
+    private void submit(ExecutorService executor, Semaphore pendingChunks, List<Row> chunk, Run run) {
+        run.rethrowFailure();
+        pendingChunks.acquireUninterruptibly();
+        executor.execute(() -> {
+            try {
+                write(chunk, run);
+            } catch (RuntimeException e) {
+                run.fail(e);
+            } finally {
+                pendingChunks.release();
+            }
+        });
+    }
+
+    private void write(List<Row> chunk, Run run) {
+        List<Row> created;
+        try {
+            created = transactionTemplate.execute(status -> {
+                Set<String> existing = new HashSet<>(accountRepository.findExistingAccountNumbers(
+                        chunk.stream().map(Row::accountNumber).toList()));
+                List<Row> rows = chunk.stream().filter(row -> !existing.contains(row.accountNumber())).toList();
+                accountRepository.saveAll(rows.stream().map(Row::toAccount).toList());
+                accountRepository.flush();
+                return rows;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // an account number was created concurrently; fall back to one insert per row
+            created = chunk.stream().filter(this::writeOne).toList();
+        }
+        Set<Row> imported = new HashSet<>(created);
+        for (Row row : chunk) {
+            if (!imported.contains(row)) {
+                run.reject(row.line(), row.accountNumber(), ApiError.ACCOUNT_EXISTS.getMessage());
+            }
+        }
+        run.imported(created.size());
+    }
+
+    private boolean writeOne(Row row) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> accountRepository.saveAndFlush(row.toAccount()));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private Row parseCsv(long line, String text) {
+        String accountNumber;
+        int comma;
+        if (text.startsWith("\"")) {
+            StringBuilder value = new StringBuilder();
+            int quote = 0;
+            while (true) {
+                int next = text.indexOf('"', quote + 1);
+                if (next < 0) {
+                    return null;
+                }
+                value.append(text, quote + 1, next);
+                if (next + 1 < text.length() && text.charAt(next + 1) == '"') {
+                    value.append('"');
+                    quote = next + 1;
+                } else {
+                    comma = next + 1;
+                    break;
+                }
+            }
+            if (comma >= text.length() || text.charAt(comma) != ',') {
+                return null;
+            }
+            accountNumber = value.toString();
+        } else {
+            comma = text.indexOf(',');
+            if (comma < 0) {
+                return null;
+            }
+            accountNumber = text.substring(0, comma).trim();
+            if (accountNumber.indexOf('"') >= 0) {
+                return null;
+            }
+        }
+        if (text.indexOf(',', comma + 1) >= 0) {
+            return null;
+        }
+        try {
+            return new Row(line, accountNumber, new BigDecimal(text.substring(comma + 1).trim()));
+        } catch (NumberFormatException e) {
+            return new Row(line, accountNumber, null);
+        }
+    }
+
+    /**
+     * Whether the row starts a quoted field that has not been closed yet; doubled quotes inside the
+     * field come in pairs, so an odd number of quotes means it is still open.
+     */
+    private static boolean openQuote(String text) {
+        return text.startsWith("\"") && text.chars().filter(c -> c == '"').count() % 2 == 1;
+    }
+
+    private Row parseJson(long line, String text) {
+        try {
+            AccountCreateDto account = objectMapper.readValue(text, AccountCreateDto.class);
+            return new Row(line, account.getAccountNumber(), account.getInitialBalance());
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static String validate(Row row) {
+        if (StringUtils.isBlank(row.accountNumber()) || row.accountNumber().indexOf(AccountBuckets.SEPARATOR) >= 0) {
+            return ApiError.INVALID_ACCOUNT_NUMBER.getMessage();
+        }
+        if (row.balance() == null || row.balance().signum() == 0
+                || row.balance().stripTrailingZeros().scale() > Money.SCALE) {
+            return ApiError.INVALID_INITIAL_BALANCE.getMessage();
+        }
+        return null;
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Account import interrupted", e);
+        }
+    }
+
+    private record Row(long line, String accountNumber, BigDecimal balance) {
+
+        Account toAccount() {
+            return Account.builder().accountNumber(accountNumber).balance(balance).build();
+        }
+    }
+
+    private final class Run {
+
+        private final Listener listener;
+        private final List<AccountImportReject> rejects = new ArrayList<>();
+        private long read;
+        private long imported;
+        private long rejected;
+        private RuntimeException failure;
+
+        private Run(Listener listener) {
+            this.listener = listener;
+        }
+
+        synchronized void read() {
+            read++;
+        }
+
+        synchronized void reject(long line, String accountNumber, String reason) {
+            AccountImportReject reject = new AccountImportReject(line, accountNumber, reason);
+            if (rejects.size() < maxReportedRejects) {
+                rejects.add(reject);
+            }
+            rejected++;
+            rejectedRows.increment();
+            listener.rejected(reject);
+        }
+
+        synchronized void imported(int rows) {
+            imported += rows;
+            importedRows.increment(rows);
+            listener.progress(read, imported, rejected);
+        }
+
+        synchronized void fail(RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+
+        synchronized void rethrowFailure() {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        synchronized AccountImportReport report() {
+            return new AccountImportReport(read, imported, rejected, List.copyOf(rejects));
+        }
+    }
+}
@@ -1,9 +1,98 @@
 package com.banking.account;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Account findByAccountNumber(String accountNumber);
+
+    boolean existsByAccountNumber(String accountNumber);
+
+    List<Account> findAllByAccountNumberIn(Collection<String> accountNumbers);
+
+    @Query("select a.accountNumber from Account a where a.accountNumber in :accountNumbers")
+    List<String> findExistingAccountNumbers(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    List<Account> findByIdGreaterThanAndParentAccountNumberIsNullOrderByIdAsc(Long id, Limit limit);
+
+    List<Account> findAllByParentAccountNumber(String parentAccountNumber);
+
+    @Query("select coalesce(sum(a.balance), 0) from Account a where a.parentAccountNumber = :accountNumber")
+    BigDecimal sumBucketBalances(@Param("accountNumber") String accountNumber);
+
+    @Query("""
+            select new com.banking.account.AccountView(a.id, a.accountNumber,
+                a.balance + coalesce((select sum(b.balance) from Account b where b.parentAccountNumber = a.accountNumber), 0),
+                a.buckets)
+            from Account a where a.id > :afterId and a.parentAccountNumber is null order by a.id""")
+    List<AccountView> findPage(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            select new com.banking.account.AccountBalance(a.id, a.accountNumber,
+                a.balance + coalesce((select sum(b.balance) from Account b where b.parentAccountNumber = a.accountNumber), 0))
+            from Account a where a.parentAccountNumber is null order by a.id""")
+    Stream<AccountBalance> streamAllBalances();
+
+    /**
+     * Like {@link #streamAllBalances()} for ledger mode: every snapshot, the account's and its
+     * buckets', is extended by the ledger entries appended after its {@code ledgerPosition}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            select new com.banking.account.AccountBalance(a.id, a.accountNumber,
+                a.balance
+                + coalesce((select sum(e.amount) from LedgerEntry e
+                    where e.accountNumber = a.accountNumber and e.id > coalesce(a.ledgerPosition, 0)), 0)
+                + coalesce((select sum(b.balance) from Account b where b.parentAccountNumber = a.accountNumber), 0)
+                + coalesce((select sum(e.amount) from Account b, LedgerEntry e
+                    where b.parentAccountNumber = a.accountNumber and e.accountNumber = b.accountNumber
+                      and e.id > coalesce(b.ledgerPosition, 0)), 0))
+            from Account a where a.parentAccountNumber is null order by a.id""")
+    Stream<AccountBalance> streamAllLedgerBalances();
+
+    @Modifying
+    @Query("""
+            update Account a set a.balance = :balance, a.version = coalesce(a.version, 0) + 1
+            where a.accountNumber = :accountNumber and coalesce(a.version, 0) = :version""")
+    int updateBalance(@Param("accountNumber") String accountNumber,
+                      @Param("balance") BigDecimal balance,
+                      @Param("version") long version);
+
+    @Modifying
+    @Query("""
+            update Account a set a.balance = :balance, a.version = coalesce(a.version, 0) + 1
+            where a.accountNumber = :accountNumber""")
+    int overwriteBalance(@Param("accountNumber") String accountNumber, @Param("balance") BigDecimal balance);
+
+    @Modifying
+    @Query("""
+            update Account a set a.balance = :balance, a.ledgerPosition = :position
+            where a.accountNumber = :accountNumber""")
+    int snapshotBalance(@Param("accountNumber") String accountNumber,
+                        @Param("balance") BigDecimal balance,
+                        @Param("position") long position);
+
+    @Modifying
+    @Query("""
+            update Account a set a.balance = a.balance + :delta, a.version = coalesce(a.version, 0) + 1
+            where a.accountNumber = :accountNumber""")
+    int addToBalance(@Param("accountNumber") String accountNumber, @Param("delta") BigDecimal delta);
+
+    @Modifying
+    @Query("update Account a set a.buckets = :buckets where a.accountNumber = :accountNumber")
+    int updateBuckets(@Param("accountNumber") String accountNumber, @Param("buckets") int buckets);
 }
@@ -1,44 +1,209 @@
 package com.banking.account;
 
+import com.banking.error.ApiError;
+import com.banking.ledger.Ledger;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AccountService {
 
+    public static final String ACCOUNTS_CACHE = "accounts";
+
     private final AccountRepository accountRepository;
+    private final Ledger ledger;
+    private final CacheManager cacheManager;
 
     public Account createAccount(AccountCreateDto accountCreateDto) {
-        if (getAccount(accountCreateDto.getAccountNumber()) == null) {
-            return accountRepository.save(
+        if (accountRepository.existsByAccountNumber(accountCreateDto.getAccountNumber())) {
+            throw ApiError.ACCOUNT_EXISTS;
+        }
+        try {
+            return accountRepository.saveAndFlush(
                     Account.builder().accountNumber(accountCreateDto.getAccountNumber())
                             .balance(accountCreateDto.getInitialBalance()).build()
             );
+        } catch (DataIntegrityViolationException e) {
+            throw ApiError.ACCOUNT_EXISTS;
         }
-        throw new RuntimeException("Account has already been created");
     }
 
-    public Account getAccountInfo(String accountNumber) {
+    /**
+     * Served from the accounts cache. A miss only fills an absent entry, so a read that started
+     * before a commit cannot replace the view the balance engine published for that commit.
+     * Bucketed accounts are not cached: their balance spans rows no single lock orders.
+     */
+    public AccountView getAccountInfo(String accountNumber) {
+        Cache cache = accountsCache();
+        AccountView cached = cache.get(accountNumber, AccountView.class);
+        if (cached != null) {
+            return cached;
+        }
         Account byAccountNumber = accountRepository.findByAccountNumber(accountNumber);
 
-        if (byAccountNumber == null) {
-            throw new RuntimeException("Account not found");
+        if (byAccountNumber == null || byAccountNumber.getParentAccountNumber() != null) {
+            throw ApiError.ACCOUNT_NOT_FOUND;
         }
-        return byAccountNumber;
+        AccountView view = AccountView.of(withCurrentBalance(byAccountNumber));
+        if (AccountBuckets.countOf(byAccountNumber) == 1) {
+            cache.putIfAbsent(accountNumber, view);
+        }
+        return view;
     }
 
     public Account getAccount(String accountNumber) {
         return accountRepository.findByAccountNumber(accountNumber);
     }
 
-    public List<Account> getAllAccounts() {
-        return accountRepository.findAll();
+    /**
+     * A reference to the account for associating a new row with it; neither queries nor loads it.
+     */
+    public Account getReference(Long id) {
+        return accountRepository.getReferenceById(id);
+    }
+
+    public List<Account> getAccounts(Collection<String> accountNumbers) {
+        return accountRepository.findAllByAccountNumberIn(accountNumbers);
+    }
+
+    /**
+     * Reads the page as projections with the bucket balances summed in the same query; only ledger
+     * mode, where balances are projected from the ledger, loads the account entities.
+     */
+    public List<AccountView> getAccountsPage(Long afterId, int limit) {
+        long after = afterId == null ? 0L : afterId;
+        if (!ledger.isEnabled()) {
+            return accountRepository.findPage(after, Limit.of(limit));
+        }
+        return accountRepository.findByIdGreaterThanAndParentAccountNumberIsNullOrderByIdAsc(after, Limit.of(limit))
+                .stream()
+                .map(account -> AccountView.of(withCurrentBalance(account)))
+                .toList();
+    }
+
+    /**
+     * Streams every account with its current balance; in ledger mode the ledger tail past each
+     * snapshot is summed into the same query.
+     */
+    @Transactional(readOnly = true)
+    public void streamAccounts(Consumer<AccountBalance> consumer) {
+        try (Stream<AccountBalance> accounts = ledger.isEnabled()
+                ? accountRepository.streamAllLedgerBalances()
+                : accountRepository.streamAllBalances()) {
+            accounts.forEach(consumer);
+        }
     }
 
     public Account updateAccount(Account accountToUpdate) {
         return accountRepository.save(accountToUpdate);
     }
+
+    /**
+     * Splits the account into the given number of sub-balance buckets. New buckets start empty,
+     * the count can only grow so that no balance is ever stranded in a dropped bucket; a smaller count
+     * is rejected as {@link ApiError#INVALID_BUCKET_COUNT}.
+     */
+    @Transactional
+    public void enableBuckets(String accountNumber, int buckets) {
+        Account account = accountRepository.findByAccountNumber(accountNumber);
+        if (account == null || account.getParentAccountNumber() != null) {
+            throw ApiError.ACCOUNT_NOT_FOUND;
+        }
+        int current = AccountBuckets.countOf(account);
+        if (buckets < current) {
+            throw ApiError.INVALID_BUCKET_COUNT;
+        }
+        accountRepository.saveAll(IntStream.range(current, buckets)
+                .mapToObj(bucket -> Account.builder()
+                        .accountNumber(AccountBuckets.keyOf(accountNumber, bucket))
+                        .parentAccountNumber(accountNumber)
+                        .balance(BigDecimal.ZERO)
+                        .build())
+                .toList());
+        accountRepository.updateBuckets(accountNumber, buckets);
+    }
+
+    @Transactional
+    public void updateBalances(List<BalanceUpdate> updates) {
+        for (BalanceUpdate update : updates) {
+            if (accountRepository.updateBalance(update.accountNumber(), update.balance(), update.version()) == 0) {
+                throw new ObjectOptimisticLockingFailureException(Account.class, update.accountNumber());
+            }
+        }
+    }
+
+    @Transactional
+    public void addToBalances(Map<String, BigDecimal> deltas) {
+        deltas.forEach(accountRepository::addToBalance);
+    }
+
+    @Transactional
+    public void overwriteBalances(Map<String, BigDecimal> balances) {
+        balances.forEach(accountRepository::overwriteBalance);
+    }
+
+    @Transactional
+    public void snapshotBalance(String accountNumber, BigDecimal balance, long position) {
+        accountRepository.snapshotBalance(accountNumber, balance, position);
+    }
+
+    /**
+     * Stores the committed view of an account. The balance engine calls this while it still holds
+     * the account lock, so the views of one account are stored in commit order.
+     */
+    public void cacheAccountInfo(AccountView view) {
+        accountsCache().put(view.accountNumber(), view);
+    }
+
+    public void evictAccountInfo(String accountNumber) {
+        accountsCache().evict(accountNumber);
+    }
+
+    private Cache accountsCache() {
+        return cacheManager.getCache(ACCOUNTS_CACHE);
+    }
+
+    private Account withCurrentBalance(Account account) {
+        boolean bucketed = AccountBuckets.countOf(account) > 1;
+        if (!bucketed && !ledger.isEnabled()) {
+            return account;
+        }
+        BigDecimal balance = ledgerBalanceOf(account);
+        if (bucketed) {
+            balance = balance.add(ledger.isEnabled()
+                    ? accountRepository.findAllByParentAccountNumber(account.getAccountNumber()).stream()
+                            .map(this::ledgerBalanceOf)
+                            .reduce(BigDecimal.ZERO, BigDecimal::add)
+                    : accountRepository.sumBucketBalances(account.getAccountNumber()));
+        }
+        return Account.builder()
+                .id(account.getId())
+                .accountNumber(account.getAccountNumber())
+                .balance(balance)
+                .buckets(account.getBuckets())
+                .ledgerPosition(account.getLedgerPosition())
+                .version(account.getVersion())
+                .build();
+    }
+
+    private BigDecimal ledgerBalanceOf(Account account) {
+        return ledger.isEnabled()
+                ? ledger.balanceOf(account.getAccountNumber(), account.getBalance(), account.getLedgerPosition())
+                : account.getBalance();
+    }
 }
@@ -0,0 +1,13 @@
+package com.banking.account;
+
+import java.math.BigDecimal;
+
+/**
+ * Read model of an account as returned by the API.
+ */
+public record AccountView(Long id, String accountNumber, BigDecimal balance, Integer buckets) {
+
+    public static AccountView of(Account account) {
+        return new AccountView(account.getId(), account.getAccountNumber(), account.getBalance(), account.getBuckets());
+    }
+}
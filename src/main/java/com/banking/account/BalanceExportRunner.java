@@ -0,0 +1,44 @@
+package com.banking.account;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Command-line export: when {@code banking.export.path} is set, the application writes the balance
+ * export to that file once started and then exits.
+ */
+@Component
+@Profile("!reactive")
+public class BalanceExportRunner implements ApplicationRunner {
+
+    private final BalanceExporter balanceExporter;
+    private final ApplicationContext applicationContext;
+    private final String path;
+    private final BalanceExporter.Format format;
+
+    public BalanceExportRunner(BalanceExporter balanceExporter,
+                               ApplicationContext applicationContext,
+                               @Value("${banking.export.path:}") String path,
+                               @Value("${banking.export.format:CSV}") BalanceExporter.Format format) {
+        this.balanceExporter = balanceExporter;
+        this.applicationContext = applicationContext;
+        this.path = path;
+        this.format = format;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (path.isBlank()) {
+            return;
+        }
+        balanceExporter.export(format, Path.of(path));
+        System.exit(SpringApplication.exit(applicationContext));
+    }
+}
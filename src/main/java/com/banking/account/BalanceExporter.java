@@ -0,0 +1,142 @@
+package com.banking.account;
+
+import com.banking.balance.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the number and balance of every account to a file. Rows come from the fetch-size cursor
+ * of {@link AccountService#streamAccounts} and go through one reused direct buffer into a
+ * {@link FileChannel}, so the heap used does not grow with the number of accounts.
+ * <p>
+ * {@link Format#CSV} writes an {@code account_number,balance} header and one line per account; an
+ * account number holding a comma, quote or line break is quoted as in RFC 4180.
+ * {@link Format#BINARY} writes a big-endian header of magic {@code BKEX}, format version, balance
+ * scale and account count, followed per account by the id as a long, the UTF-8 account number
+ * prefixed by its length as a short, and the balance in minor units as a long.
+ */
+@Component
+@Profile("!reactive")
+public class BalanceExporter {
+
+    public enum Format {
+        CSV, BINARY
+    }
+
+    static final int MAGIC = 0x424B4558;
+    static final byte VERSION = 1;
+    private static final int COUNT_OFFSET = 6;
+    private static final byte[] CSV_HEADER = "account_number,balance\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final AccountService accountService;
+    private final Path directory;
+    private final int bufferSize;
+
+    public BalanceExporter(AccountService accountService,
+                           @Value("${banking.export.dir:${java.io.tmpdir}}") String directory,
+                           @Value("${banking.export.buffer-kb:64}") int bufferKb) {
+        this.accountService = accountService;
+        this.directory = Path.of(directory);
+        this.bufferSize = bufferKb * 1024;
+    }
+
+    /**
+     * Exports into a new temporary file of the export directory; the caller deletes it.
+     */
+    public Path export(Format format) throws IOException {
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "balances-", format == Format.CSV ? ".csv" : ".bin");
+        try {
+            export(format, file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Exports into the given file, replacing its content, and returns the number of accounts written.
+     */
+    public long export(Format format, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+            if (format == Format.CSV) {
+                buffer.put(CSV_HEADER);
+            } else {
+                buffer.putInt(MAGIC).put(VERSION).put((byte) Money.SCALE).putLong(0);
+            }
+            long[] count = new long[1];
+            try {
+                accountService.streamAccounts(account -> {
+                    if (format == Format.CSV) {
+                        byte[] accountNumber = csvField(account.accountNumber()).getBytes(StandardCharsets.UTF_8);
+                        byte[] balance = account.balance().toPlainString().getBytes(StandardCharsets.US_ASCII);
+                        reserve(channel, buffer, accountNumber.length + balance.length + 2);
+                        buffer.put(accountNumber).put((byte) ',').put(balance).put((byte) '\n');
+                    } else {
+                        byte[] accountNumber = account.accountNumber().getBytes(StandardCharsets.UTF_8);
+                        reserve(channel, buffer, accountNumber.length + 18);
+                        buffer.putLong(account.id())
+                                .putShort((short) accountNumber.length)
+                                .put(accountNumber)
+                                .putLong(Money.toMinorUnits(account.balance()));
+                    }
+                    count[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            drain(channel, buffer.flip());
+            if (format == Format.BINARY) {
+                channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, count[0]), COUNT_OFFSET);
+            }
+            channel.force(false);
+            return count[0];
+        }
+    }
+
+    /**
+     * Quotes the field when it holds a separator, a quote or a line break, doubling embedded quotes.
+     */
+    static String csvField(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+
+    private void reserve(FileChannel channel, ByteBuffer buffer, int bytes) {
+        if (bytes > bufferSize) {
+            throw new IllegalStateException("Export row of " + bytes + " bytes does not fit the export buffer");
+        }
+        if (buffer.remaining() < bytes) {
+            try {
+                drain(channel, buffer.flip());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
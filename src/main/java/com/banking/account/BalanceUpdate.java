@@ -0,0 +1,6 @@
+package com.banking.account;
+
+import java.math.BigDecimal;
+
+public record BalanceUpdate(String accountNumber, BigDecimal balance, long version) {
+}
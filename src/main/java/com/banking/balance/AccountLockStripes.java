@@ -0,0 +1,86 @@
+package com.banking.balance;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class AccountLockStripes implements MeterBinder {
+
+    private final ReentrantLock[] stripes;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile Timer waitTimer;
+
+    public AccountLockStripes(@Value("${banking.balance.lock-stripes:1024}") int stripeCount) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public int stripeOf(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    public ReentrantLock lockFor(String accountNumber) {
+        return stripes[stripeOf(accountNumber)];
+    }
+
+    public ReentrantLock lockAt(int stripe) {
+        return stripes[stripe];
+    }
+
+    /**
+     * Acquires the lock within the timeout. Only acquisitions that have to wait are timed, so the
+     * uncontended path stays a single {@code tryLock}.
+     */
+    public boolean tryLock(ReentrantLock lock, long timeoutMs) throws InterruptedException {
+        if (lock.tryLock()) {
+            return true;
+        }
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            boolean acquired = lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+            if (!acquired) {
+                timeouts.increment();
+            }
+            return acquired;
+        } finally {
+            waiting.decrementAndGet();
+            Timer timer = waitTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("banking.balance.lock.waiting", waiting, AtomicInteger::get)
+                .description("Threads currently waiting for an account lock")
+                .register(registry);
+        FunctionCounter.builder("banking.balance.lock.timeouts", timeouts, LongAdder::sum)
+                .description("Account lock acquisitions that timed out")
+                .register(registry);
+        waitTimer = Timer.builder("banking.balance.lock.wait")
+                .description("Time spent waiting for contended account locks")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
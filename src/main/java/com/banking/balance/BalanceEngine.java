@@ -0,0 +1,440 @@
+package com.banking.balance;
+
+import com.banking.account.Account;
+import com.banking.account.AccountBuckets;
+import com.banking.account.AccountService;
+import com.banking.account.BalanceUpdate;
+import com.banking.error.ApiError;
+import com.banking.ledger.Ledger;
+import com.banking.ledger.LedgerEntry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory balances keyed by account number. Mutations of the same account are
+ * serialized on its lock stripe, which stays held until the surrounding transaction
+ * completes, so updates are applied in order and rolled back balances are restored.
+ * Inside a transaction every touched balance is written once, right before commit.
+ * Write-behind mode treats the engine as the only writer and skips the version check.
+ * Ledger mode appends every change to the {@link Ledger} instead of updating account rows.
+ * With the journal enabled the engine only keeps balances in memory; the journal applier
+ * persists the journaled operations.
+ * Accounts split into sub-balance buckets take credits on one random bucket, so concurrent
+ * deposits to a hot account only contend per bucket; debits lock all buckets and draw across them.
+ * Balances are held as {@link Money} minor units and only converted at the database boundary.
+ * Cached balances are never evicted: with write-behind or the journal they may be ahead of the
+ * database, so the engine expects every account it has touched to fit in memory.
+ */
+@Component
+public class BalanceEngine {
+
+    private final AccountService accountService;
+    private final AccountLockStripes lockStripes;
+    private final Ledger ledger;
+    private final boolean writeBehind;
+    private final boolean journaled;
+    private final long lockTimeoutMs;
+
+    private final Map<String, CachedBalance> accounts = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    public BalanceEngine(AccountService accountService,
+                         AccountLockStripes lockStripes,
+                         Ledger ledger,
+                         @Value("${banking.balance.write-behind.enabled:false}") boolean writeBehind,
+                         @Value("${banking.journal.enabled:false}") boolean journaled,
+                         @Value("${banking.balance.lock-timeout-ms:5000}") long lockTimeoutMs) {
+        this.accountService = accountService;
+        this.lockStripes = lockStripes;
+        this.ledger = ledger;
+        this.writeBehind = writeBehind;
+        this.journaled = journaled;
+        this.lockTimeoutMs = lockTimeoutMs;
+    }
+
+    /**
+     * Credits the account and returns its id, so the transaction row can reference the account
+     * without copying its state.
+     */
+    public Long credit(String accountNumber, BigDecimal amount) {
+        long minorUnits = Money.toMinorUnits(amount);
+        CachedBalance account = load(accountNumber);
+        String key = creditKey(account);
+        locked(List.of(key), () -> apply(key, creditOf(minorUnits)));
+        return account.getId();
+    }
+
+    /**
+     * Debits the account and returns its id.
+     */
+    public Long debit(String accountNumber, BigDecimal amount) {
+        long minorUnits = Money.toMinorUnits(amount);
+        List<String> keys = keysOf(accountNumber);
+        return locked(keys, () -> draw(keys, minorUnits)).getId();
+    }
+
+    /**
+     * Keys of the account and all its buckets, the set that has to be locked before debiting it.
+     */
+    public List<String> keysOf(String accountNumber) {
+        return AccountBuckets.keysOf(accountNumber, load(accountNumber).bucketCount());
+    }
+
+    /**
+     * Lock keys for a batch: known accounts expand to their buckets, unknown ones stay as they are
+     * so that a missing account fails its own operation rather than the whole batch.
+     */
+    public Set<String> lockKeysOf(Collection<String> accountNumbers) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String accountNumber : accountNumbers) {
+            CachedBalance account = accounts.get(accountNumber);
+            keys.addAll(account == null
+                    ? List.of(accountNumber)
+                    : AccountBuckets.keysOf(accountNumber, account.bucketCount()));
+        }
+        return keys;
+    }
+
+    /**
+     * Lock stripes that locking the {@link #lockKeysOf lock keys} of these accounts would hold.
+     */
+    public Set<Integer> stripesOf(Collection<String> accountNumbers) {
+        return lockKeysOf(accountNumbers).stream()
+                .map(lockStripes::stripeOf)
+                .collect(Collectors.toSet());
+    }
+
+    @Scheduled(fixedDelayString = "${banking.balance.write-behind.flush-interval-ms:200}")
+    public void flush() {
+        if (!writeBehind || dirty.isEmpty()) {
+            return;
+        }
+        Map<String, BigDecimal> snapshot = new HashMap<>();
+        try {
+            for (String accountNumber : dirty) {
+                ReentrantLock lock = acquire(accountNumber);
+                try {
+                    dirty.remove(accountNumber);
+                    snapshot.put(accountNumber, Money.toDecimal(accounts.get(accountNumber).getBalance()));
+                } finally {
+                    lock.unlock();
+                }
+            }
+            accountService.overwriteBalances(snapshot);
+        } catch (RuntimeException e) {
+            dirty.addAll(snapshot.keySet());
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    static LongUnaryOperator creditOf(long amount) {
+        return balance -> Money.add(balance, amount);
+    }
+
+    static LongUnaryOperator debitOf(long amount) {
+        return balance -> {
+            if (balance < amount) {
+                throw ApiError.INSUFFICIENT_FUNDS;
+            }
+            return balance - amount;
+        };
+    }
+
+    /**
+     * Runs the action holding the stripes of all given accounts, acquired in ascending
+     * stripe order so that concurrent callers locking the same accounts cannot deadlock.
+     */
+    public <T> T locked(Collection<String> accountNumbers, Supplier<T> action) {
+        int[] order = accountNumbers.stream()
+                .mapToInt(lockStripes::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+        Deque<ReentrantLock> acquired = new ArrayDeque<>(order.length);
+        try {
+            for (int stripe : order) {
+                acquired.push(acquire(lockStripes.lockAt(stripe)));
+            }
+        } catch (RuntimeException e) {
+            acquired.forEach(ReentrantLock::unlock);
+            throw e;
+        }
+
+        BalanceUnitOfWork unitOfWork = currentUnitOfWork();
+        if (unitOfWork == null) {
+            try {
+                return action.get();
+            } finally {
+                acquired.forEach(ReentrantLock::unlock);
+            }
+        }
+        acquired.forEach(unitOfWork::hold);
+        return action.get();
+    }
+
+    /**
+     * Runs the action as one step of the surrounding transaction: if it fails, every balance it
+     * changed is restored before the exception is rethrown, while earlier changes stay in place.
+     */
+    public <T> T atomically(Supplier<T> action) {
+        BalanceUnitOfWork unitOfWork = currentUnitOfWork();
+        if (unitOfWork == null) {
+            return action.get();
+        }
+        BalanceUnitOfWork.Savepoint savepoint = unitOfWork.savepoint();
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            unitOfWork.rollbackTo(savepoint);
+            throw e;
+        }
+    }
+
+    /**
+     * Net balance change per key, in minor units, made by the current transaction since the last
+     * call; the journal records it so that exactly these keys are applied or reverted later.
+     */
+    public Map<String, Long> takeChanges() {
+        BalanceUnitOfWork unitOfWork = currentUnitOfWork();
+        return unitOfWork == null ? Map.of() : unitOfWork.takeChanges();
+    }
+
+    /**
+     * Takes back committed changes that never became durable. The changes of all discarded operations
+     * are passed merged in one call, so every key returns to its balance before the first of them.
+     */
+    public void revert(Map<String, Long> changes) {
+        locked(changes.keySet(), () -> {
+            changes.forEach((key, delta) -> apply(key, balance -> balance - delta));
+            return null;
+        });
+    }
+
+    String creditKey(CachedBalance account) {
+        int buckets = account.bucketCount();
+        return buckets == 1
+                ? account.getAccountNumber()
+                : AccountBuckets.keyOf(account.getAccountNumber(), ThreadLocalRandom.current().nextInt(buckets));
+    }
+
+    /**
+     * Debits the amount across the given bucket keys, starting at a random bucket. All keys must be locked.
+     */
+    CachedBalance draw(List<String> keys, long amount) {
+        if (keys.size() == 1) {
+            return apply(keys.get(0), debitOf(amount));
+        }
+        long available = 0;
+        for (String key : keys) {
+            available = Money.add(available, load(key).getBalance());
+        }
+        if (available < amount) {
+            throw ApiError.INSUFFICIENT_FUNDS;
+        }
+        long remaining = amount;
+        int start = ThreadLocalRandom.current().nextInt(keys.size());
+        for (int i = 0; i < keys.size() && remaining > 0; i++) {
+            String key = keys.get((start + i) % keys.size());
+            long taken = Math.min(load(key).getBalance(), remaining);
+            if (taken > 0) {
+                apply(key, debitOf(taken));
+                remaining -= taken;
+            }
+        }
+        return load(keys.get(0));
+    }
+
+    /**
+     * Spreads the total evenly over the given bucket keys once one of them has fallen below
+     * half of its fair share. All keys must be locked.
+     */
+    boolean rebalance(List<String> keys) {
+        List<CachedBalance> buckets = keys.stream().map(this::load).toList();
+        long total = 0;
+        for (CachedBalance bucket : buckets) {
+            total = Money.add(total, bucket.getBalance());
+        }
+        long share = total / buckets.size();
+        long threshold = share / 2;
+        if (buckets.stream().noneMatch(bucket -> bucket.getBalance() < threshold)) {
+            return false;
+        }
+        long remainder = total - share * buckets.size();
+        for (int i = 0; i < keys.size(); i++) {
+            long target = i == 0 ? share + remainder : share;
+            if (buckets.get(i).getBalance() != target) {
+                apply(keys.get(i), balance -> target);
+            }
+        }
+        return true;
+    }
+
+    List<Account> bucketedAccounts() {
+        return accounts.values().stream()
+                .filter(account -> account.bucketCount() > 1)
+                .map(CachedBalance::toAccount)
+                .toList();
+    }
+
+    void resized(String accountNumber, int buckets) {
+        CachedBalance account = accounts.get(accountNumber);
+        if (account != null) {
+            account.setBuckets(buckets);
+        }
+    }
+
+    CachedBalance apply(String accountNumber, LongUnaryOperator change) {
+        BalanceUnitOfWork unitOfWork = currentUnitOfWork();
+        CachedBalance account = load(accountNumber);
+        long previousBalance = account.getBalance();
+        long newBalance = change.applyAsLong(previousBalance);
+
+        account.setBalance(newBalance);
+        if (unitOfWork != null) {
+            unitOfWork.record(account, previousBalance);
+        }
+        if (!journaled) {
+            List<LedgerEntry> entries = ledger.isEnabled() && newBalance != previousBalance
+                    ? List.of(ledger.entry(accountNumber, Money.toDecimal(newBalance - previousBalance)))
+                    : List.of();
+            if (writeBehind && !ledger.isEnabled()) {
+                dirty.add(accountNumber);
+            } else if (unitOfWork != null) {
+                unitOfWork.touch(account, entries);
+            } else {
+                try {
+                    write(List.of(account), entries);
+                } catch (RuntimeException e) {
+                    account.setBalance(previousBalance);
+                    throw e;
+                }
+            }
+        }
+        if (unitOfWork == null) {
+            written(List.of(accountNumber));
+        }
+        return account;
+    }
+
+    public void preload(Collection<String> accountNumbers) {
+        List<String> missing = accountNumbers.stream()
+                .filter(accountNumber -> !accounts.containsKey(accountNumber))
+                .distinct()
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        accountService.getAccounts(missing).forEach(stored -> accounts.putIfAbsent(stored.getAccountNumber(), copyOf(stored)));
+    }
+
+    /**
+     * Returns the in-memory copy, so it is safe to call without the lock for fields that do not
+     * change such as the id and the bucket count. The row is read outside the map, which would
+     * otherwise block other keys of the same bin for the whole query; when two threads load the
+     * same account concurrently the first copy stored wins and the other read is dropped.
+     */
+    CachedBalance load(String accountNumber) {
+        CachedBalance cached = accounts.get(accountNumber);
+        if (cached != null) {
+            return cached;
+        }
+        Account stored = accountService.getAccount(accountNumber);
+        if (stored == null) {
+            throw ApiError.ACCOUNT_NOT_FOUND;
+        }
+        CachedBalance loaded = copyOf(stored);
+        CachedBalance raced = accounts.putIfAbsent(accountNumber, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    /**
+     * Stores the balances with a version check. On a conflict the stale accounts are dropped
+     * from memory, so a retried operation reloads them from the database. In ledger mode only
+     * the entries are appended and the account rows are left untouched.
+     */
+    void write(Collection<CachedBalance> changed, List<LedgerEntry> entries) {
+        if (ledger.isEnabled()) {
+            ledger.append(entries);
+            return;
+        }
+        List<BalanceUpdate> updates = changed.stream()
+                .map(account -> new BalanceUpdate(account.getAccountNumber(), Money.toDecimal(account.getBalance()), account.getVersion()))
+                .toList();
+        try {
+            accountService.updateBalances(updates);
+        } catch (OptimisticLockingFailureException e) {
+            changed.forEach(account -> accounts.remove(account.getAccountNumber()));
+            throw e;
+        }
+        changed.forEach(account -> account.setVersion(account.getVersion() + 1));
+    }
+
+    /**
+     * Publishes the committed balances of the given keys to the account read cache. Called while
+     * the keys are still locked, so the views of an account are cached in commit order. A bucketed
+     * account is evicted instead, its total spans buckets the caller has not locked.
+     */
+    void written(Collection<String> keys) {
+        for (String key : keys) {
+            String accountNumber = AccountBuckets.parentOf(key);
+            CachedBalance account = accounts.get(key);
+            if (account == null || !accountNumber.equals(key) || account.bucketCount() > 1) {
+                accountService.evictAccountInfo(accountNumber);
+            } else {
+                accountService.cacheAccountInfo(account.toView());
+            }
+        }
+    }
+
+    private BalanceUnitOfWork currentUnitOfWork() {
+        return BalanceUnitOfWork.current(this);
+    }
+
+    private CachedBalance copyOf(Account stored) {
+        BigDecimal balance = ledger.isEnabled()
+                ? ledger.balanceOf(stored.getAccountNumber(), stored.getBalance(), stored.getLedgerPosition())
+                : stored.getBalance();
+        return new CachedBalance(stored.getId(), stored.getAccountNumber(), stored.getBuckets(),
+                stored.getVersion() == null ? 0L : stored.getVersion(), Money.toMinorUnits(balance));
+    }
+
+    private ReentrantLock acquire(String accountNumber) {
+        return acquire(lockStripes.lockFor(accountNumber));
+    }
+
+    private ReentrantLock acquire(ReentrantLock lock) {
+        try {
+            if (!lockStripes.tryLock(lock, lockTimeoutMs)) {
+                throw new IllegalStateException("Timed out waiting for account lock");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for account lock", e);
+        }
+        return lock;
+    }
+}
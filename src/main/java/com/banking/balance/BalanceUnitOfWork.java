@@ -0,0 +1,141 @@
+package com.banking.balance;
+
+import com.banking.ledger.LedgerEntry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the account locks taken inside a transaction until it completes, writes each
+ * touched balance (or appends the collected ledger entries) once before commit and restores the in-memory balances when the
+ * transaction does not commit. After a commit the changed balances are published to the account cache before the locks
+ * are released.
+ */
+class BalanceUnitOfWork implements TransactionSynchronization {
+
+    private final BalanceEngine engine;
+    private final Deque<ReentrantLock> locks = new ArrayDeque<>();
+    private final Deque<Undo> undoLog = new ArrayDeque<>();
+    private final Map<String, CachedBalance> touched = new TreeMap<>();
+    private final List<LedgerEntry> entries = new ArrayList<>();
+    private final Set<String> changed = new TreeSet<>();
+    private int reported;
+
+    private BalanceUnitOfWork(BalanceEngine engine) {
+        this.engine = engine;
+    }
+
+    static BalanceUnitOfWork current(BalanceEngine engine) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        BalanceUnitOfWork unitOfWork = (BalanceUnitOfWork) TransactionSynchronizationManager.getResource(engine);
+        if (unitOfWork == null) {
+            unitOfWork = new BalanceUnitOfWork(engine);
+            TransactionSynchronizationManager.bindResource(engine, unitOfWork);
+            TransactionSynchronizationManager.registerSynchronization(unitOfWork);
+        }
+        return unitOfWork;
+    }
+
+    void hold(ReentrantLock lock) {
+        locks.push(lock);
+    }
+
+    void record(CachedBalance account, long previousBalance) {
+        undoLog.push(new Undo(account, previousBalance, account.getVersion()));
+        changed.add(account.getAccountNumber());
+    }
+
+    void touch(CachedBalance account, List<LedgerEntry> appended) {
+        touched.put(account.getAccountNumber(), account);
+        entries.addAll(appended);
+    }
+
+    /**
+     * Marks the current position, so that the changes made after it can be undone without
+     * giving up the rest of the transaction.
+     */
+    Savepoint savepoint() {
+        return new Savepoint(undoLog.size(), entries.size());
+    }
+
+    void rollbackTo(Savepoint savepoint) {
+        while (undoLog.size() > savepoint.undoLogSize()) {
+            undoLog.pop().restore();
+        }
+        entries.subList(savepoint.entryCount(), entries.size()).clear();
+        reported = Math.min(reported, undoLog.size());
+    }
+
+    /**
+     * Net change per key since the previous call, skipping keys that ended where they started.
+     */
+    Map<String, Long> takeChanges() {
+        Map<String, CachedBalance> accounts = new LinkedHashMap<>();
+        Map<String, Long> before = new HashMap<>();
+        Iterator<Undo> oldestFirst = undoLog.descendingIterator();
+        for (int i = 0; i < reported; i++) {
+            oldestFirst.next();
+        }
+        while (oldestFirst.hasNext()) {
+            Undo undo = oldestFirst.next();
+            accounts.putIfAbsent(undo.account().getAccountNumber(), undo.account());
+            before.putIfAbsent(undo.account().getAccountNumber(), undo.previousBalance());
+        }
+        reported = undoLog.size();
+
+        Map<String, Long> changes = new LinkedHashMap<>();
+        accounts.forEach((key, account) -> {
+            long delta = account.getBalance() - before.get(key);
+            if (delta != 0) {
+                changes.put(key, delta);
+            }
+        });
+        return changes;
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+        if (!touched.isEmpty()) {
+            engine.write(touched.values(), entries);
+        }
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        try {
+            if (status == STATUS_COMMITTED) {
+                engine.written(changed);
+            } else {
+                undoLog.forEach(Undo::restore);
+            }
+        } finally {
+            TransactionSynchronizationManager.unbindResourceIfPossible(engine);
+            locks.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    record Savepoint(int undoLogSize, int entryCount) {
+    }
+
+    private record Undo(CachedBalance account, long previousBalance, long previousVersion) {
+
+        void restore() {
+            account.setBalance(previousBalance);
+            account.setVersion(previousVersion);
+        }
+    }
+}
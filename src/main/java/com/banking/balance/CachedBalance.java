@@ -0,0 +1,30 @@
+package com.banking.balance;
+
+import com.banking.account.AccountView;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * In-memory state of one account (or bucket) in the {@link BalanceEngine}: the fields the engine
+ * needs, with the balance in {@link Money} minor units. Balance and version are only changed under
+ * the account lock.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+final class CachedBalance {
+    private final Long id;
+    private final String accountNumber;
+    private volatile Integer buckets;
+    private long version;
+    private long balance;
+
+    int bucketCount() {
+        return buckets == null ? 1 : buckets;
+    }
+
+    AccountView toView() {
+        return new AccountView(id, accountNumber, Money.toDecimal(balance), buckets);
+    }
+}
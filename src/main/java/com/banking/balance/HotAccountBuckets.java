@@ -0,0 +1,73 @@
+package com.banking.balance;
+
+import com.banking.account.Account;
+import com.banking.account.AccountBuckets;
+import com.banking.account.AccountService;
+import com.banking.account.AccountView;
+import com.banking.error.ApiError;
+import com.banking.journal.TransactionJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Opt-in sub-balance buckets for hot accounts and the periodic rebalancing that keeps
+ * debits from running dry on individual buckets. With the journal enabled a rebalance is
+ * journaled as a balance move, so the applier writes it to the bucket rows.
+ */
+@Component
+public class HotAccountBuckets {
+
+    private final AccountService accountService;
+    private final BalanceEngine balanceEngine;
+    private final TransactionJournal transactionJournal;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebalanceEnabled;
+
+    public HotAccountBuckets(AccountService accountService,
+                             BalanceEngine balanceEngine,
+                             TransactionJournal transactionJournal,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${banking.balance.buckets.rebalance.enabled:true}") boolean rebalanceEnabled) {
+        this.accountService = accountService;
+        this.balanceEngine = balanceEngine;
+        this.transactionJournal = transactionJournal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebalanceEnabled = rebalanceEnabled;
+    }
+
+    public AccountView enable(String accountNumber, int buckets) {
+        balanceEngine.locked(List.of(accountNumber), () -> {
+            accountService.enableBuckets(accountNumber, buckets);
+            balanceEngine.resized(accountNumber, buckets);
+            return null;
+        });
+        accountService.evictAccountInfo(accountNumber);
+        return accountService.getAccountInfo(accountNumber);
+    }
+
+    @Scheduled(fixedDelayString = "${banking.balance.buckets.rebalance.interval-ms:1000}")
+    public void rebalance() {
+        if (!rebalanceEnabled) {
+            return;
+        }
+        for (Account account : balanceEngine.bucketedAccounts()) {
+            List<String> keys = AccountBuckets.keysOf(account.getAccountNumber(), AccountBuckets.countOf(account));
+            try {
+                transactionTemplate.execute(status -> balanceEngine.locked(keys, () -> {
+                    if (balanceEngine.rebalance(keys) && transactionJournal.isEnabled()) {
+                        transactionJournal.append(null, balanceEngine.takeChanges());
+                    }
+                    return null;
+                }));
+            } catch (OptimisticLockingFailureException | IllegalStateException | ApiError e) {
+                // stale bucket or busy account, the next run picks it up again
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.banking.balance;
+
+import com.banking.account.Account;
+import com.banking.account.AccountService;
+import com.banking.ledger.Ledger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Periodically folds the ledger tail of recently changed accounts into the snapshot on
+ * the account row, so rebuilding a balance only has to sum the entries appended since.
+ * Each account is snapshotted under its lock, where no entry for it can be in flight.
+ */
+@Component
+public class LedgerSnapshots {
+
+    private final Ledger ledger;
+    private final AccountService accountService;
+    private final BalanceEngine balanceEngine;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile long snapshotPosition;
+
+    public LedgerSnapshots(Ledger ledger,
+                           AccountService accountService,
+                           BalanceEngine balanceEngine,
+                           PlatformTransactionManager transactionManager) {
+        this.ledger = ledger;
+        this.accountService = accountService;
+        this.balanceEngine = balanceEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${banking.ledger.snapshot-interval-ms:5000}")
+    public void snapshot() {
+        if (!ledger.isEnabled()) {
+            return;
+        }
+        long lastEntryId = ledger.lastEntryId();
+        boolean complete = true;
+        for (String accountNumber : ledger.accountsChangedAfter(snapshotPosition)) {
+            try {
+                transactionTemplate.execute(status ->
+                        balanceEngine.locked(List.of(accountNumber), () -> snapshot(accountNumber)));
+            } catch (RuntimeException e) {
+                complete = false;
+            }
+        }
+        if (complete) {
+            snapshotPosition = lastEntryId;
+        }
+    }
+
+    boolean snapshot(String accountNumber) {
+        Account stored = accountService.getAccount(accountNumber);
+        long position = ledger.lastEntryIdOf(accountNumber);
+        if (stored == null || (stored.getLedgerPosition() != null && stored.getLedgerPosition() >= position)) {
+            return false;
+        }
+        BigDecimal balance = ledger.balanceOf(accountNumber, stored.getBalance(), stored.getLedgerPosition(), position);
+        accountService.snapshotBalance(accountNumber, balance, position);
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package com.banking.balance;
+
+import com.banking.error.ApiError;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money as a {@code long} of minor units with a scale of {@value #SCALE}. Amounts are
+ * converted once when they enter the balance engine and balances only become {@link BigDecimal}
+ * again at the database and JSON boundary, so balance arithmetic does not allocate.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount to minor units, rejecting amounts with more than {@value #SCALE} decimal
+     * places or outside the {@code long} range.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw ApiError.INVALID_AMOUNT;
+        }
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static long add(long balance, long amount) {
+        try {
+            return Math.addExact(balance, amount);
+        } catch (ArithmeticException e) {
+            throw ApiError.BALANCE_OVERFLOW;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.banking.balance;
+
+import com.banking.error.ApiError;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class TransferEngine {
+
+    private final BalanceEngine balanceEngine;
+
+    /**
+     * Moves the amount between the accounts and returns the id of the source account.
+     */
+    public Long transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        if (fromAccountNumber.equals(toAccountNumber)) {
+            throw ApiError.SAME_ACCOUNT;
+        }
+        long minorUnits = Money.toMinorUnits(amount);
+        List<String> sourceKeys = balanceEngine.keysOf(fromAccountNumber);
+        CachedBalance target = balanceEngine.load(toAccountNumber);
+        String targetKey = balanceEngine.creditKey(target);
+
+        List<String> keys = new ArrayList<>(sourceKeys);
+        keys.add(targetKey);
+        return balanceEngine.locked(keys, () -> {
+            CachedBalance source = balanceEngine.draw(sourceKeys, minorUnits);
+            balanceEngine.apply(targetKey, BalanceEngine.creditOf(minorUnits));
+            return source.getId();
+        });
+    }
+}
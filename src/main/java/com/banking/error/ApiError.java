@@ -0,0 +1,54 @@
+package com.banking.error;
+
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * A client error with its HTTP status. Instances are preallocated and carry no stack trace, so
+ * rejecting a request costs neither a stack walk nor an allocation; {@link ApiErrorHandler}
+ * answers with the response built once per error.
+ */
+@Getter
+public final class ApiError extends RuntimeException {
+
+    public static final ApiError INVALID_ACCOUNT_NUMBER = new ApiError(HttpStatus.BAD_REQUEST, "Invalid account number");
+    public static final ApiError INVALID_AMOUNT = new ApiError(HttpStatus.BAD_REQUEST, "Invalid amount");
+    public static final ApiError INVALID_INITIAL_BALANCE = new ApiError(HttpStatus.BAD_REQUEST, "Invalid initial balance");
+    public static final ApiError INVALID_TRANSFER_PARAMS = new ApiError(HttpStatus.BAD_REQUEST, "Invalid transfer params");
+    public static final ApiError INVALID_TRANSACTION_TYPE = new ApiError(HttpStatus.BAD_REQUEST, "Invalid transaction type");
+    public static final ApiError INVALID_BUCKET_COUNT = new ApiError(HttpStatus.BAD_REQUEST, "Invalid bucket count");
+    public static final ApiError INVALID_PAGE_SIZE = new ApiError(HttpStatus.BAD_REQUEST, "Invalid page size");
+    public static final ApiError INVALID_IDEMPOTENCY_KEY = new ApiError(HttpStatus.BAD_REQUEST, "Invalid idempotency key");
+    public static final ApiError IDEMPOTENCY_KEY_NOT_SUPPORTED = new ApiError(HttpStatus.BAD_REQUEST, "Idempotency keys are not supported");
+    public static final ApiError EMPTY_BATCH = new ApiError(HttpStatus.BAD_REQUEST, "Empty batch");
+    public static final ApiError BATCH_TOO_LARGE = new ApiError(HttpStatus.PAYLOAD_TOO_LARGE, "Too many operations in batch");
+    public static final ApiError SAME_ACCOUNT = new ApiError(HttpStatus.BAD_REQUEST, "Cannot transfer to the same account");
+    public static final ApiError ACCOUNT_NOT_FOUND = new ApiError(HttpStatus.NOT_FOUND, "Account not found");
+    public static final ApiError ACCOUNT_EXISTS = new ApiError(HttpStatus.CONFLICT, "Account has already been created");
+    public static final ApiError IDEMPOTENCY_KEY_IN_PROGRESS = new ApiError(HttpStatus.CONFLICT, "Request with this idempotency key is in progress");
+    public static final ApiError CONCURRENT_UPDATE = new ApiError(HttpStatus.CONFLICT, "Account is being updated concurrently");
+    public static final ApiError BUCKETED_ACCOUNT = new ApiError(HttpStatus.CONFLICT, "Bucketed accounts cannot be debited here");
+    public static final ApiError INSUFFICIENT_FUNDS = new ApiError(HttpStatus.UNPROCESSABLE_ENTITY, "Insufficient funds");
+    public static final ApiError BALANCE_OVERFLOW = new ApiError(HttpStatus.UNPROCESSABLE_ENTITY, "Balance overflow");
+    public static final ApiError IDEMPOTENCY_KEY_REUSED = new ApiError(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency key reused with a different request");
+    public static final ApiError TRANSACTION_LOG_FULL = new ApiError(HttpStatus.SERVICE_UNAVAILABLE, "Transaction log is full");
+    public static final ApiError JOURNAL_UNAVAILABLE = new ApiError(HttpStatus.SERVICE_UNAVAILABLE, "Transaction journal is unavailable");
+    public static final ApiError RATE_LIMITED = new ApiError(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded");
+    public static final ApiError OVERLOADED = new ApiError(HttpStatus.TOO_MANY_REQUESTS, "Server is overloaded");
+
+    private final HttpStatus status;
+    private final transient ResponseEntity<String> response;
+
+    private ApiError(HttpStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status).contentType(MediaType.TEXT_PLAIN);
+        if (status == HttpStatus.TOO_MANY_REQUESTS) {
+            builder.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        this.response = builder.body(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.banking.error;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps {@link ApiError}s, also when they arrive as the cause of a failed future, to their
+ * preallocated response.
+ */
+@RestControllerAdvice
+public class ApiErrorHandler {
+
+    @ExceptionHandler(ApiError.class)
+    public ResponseEntity<String> handle(ApiError error) {
+        return error.getResponse();
+    }
+}
@@ -0,0 +1,18 @@
+package com.banking.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdAllocationConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer idAllocationCustomizer(@Value("${banking.id.allocation-size:50}") int allocationSize) {
+        return properties -> {
+            properties.put(PooledSequenceGenerator.ALLOCATION_SIZE, allocationSize);
+            properties.put("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.banking.id;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences past the ids already stored, so tables filled while ids were
+ * generated by identity columns keep working after switching to pooled sequences.
+ * Runs once the schema exists and before the web server accepts requests. Meant to be enabled
+ * for the one start that migrates a database; a sequence already past the stored ids is left
+ * alone, since another instance may hold a pooled block above them.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SequenceMigration implements InitializingBean {
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "account_seq", "account",
+            "transaction_seq", "transaction"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int allocationSize;
+
+    public SequenceMigration(JdbcTemplate jdbcTemplate,
+                             @Value("${banking.id.migrate-sequences:false}") boolean enabled,
+                             @Value("${banking.id.allocation-size:50}") int allocationSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.allocationSize = allocationSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        SEQUENCES.forEach((sequence, table) -> {
+            Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+            Long nextValue = jdbcTemplate.queryForObject(
+                    "select base_value from information_schema.sequences where upper(sequence_name) = upper(?)",
+                    Long.class, sequence);
+            if (maxId != null && maxId > 0 && nextValue != null && nextValue <= maxId) {
+                jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (maxId + allocationSize + 1));
+            }
+        });
+    }
+}
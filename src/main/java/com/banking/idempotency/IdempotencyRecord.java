@@ -0,0 +1,33 @@
+package com.banking.idempotency;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_idempotency_record_created_at", columnList = "createdAt"))
+public class IdempotencyRecord {
+    @Id
+    @Column(length = IdempotencyStore.MAX_KEY_LENGTH)
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 512)
+    private String fingerprint;
+
+    private int status;
+
+    private String body;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
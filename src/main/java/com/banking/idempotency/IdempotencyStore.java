@@ -0,0 +1,187 @@
+package com.banking.idempotency;
+
+import com.banking.error.ApiError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses of requests sent with an {@code Idempotency-Key}, so a retried request
+ * gets the original response without being executed again. Keys live in a ring of hash segments:
+ * new keys go to the newest segment and the oldest one is dropped on every rotation, so a key
+ * expires after {@code segments * rotation-interval-ms} without any per-key bookkeeping.
+ * Completed responses are also persisted and reloaded on startup.
+ * <p>
+ * A response is persisted after the operation has committed, in its own transaction: writing it in
+ * the operation's transaction would hold the account locks across the insert. If that write fails
+ * the in-memory entry still covers retries until the next restart; the failure is logged and
+ * counted as {@code banking.idempotency.persist.failures}.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore implements InitializingBean {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final boolean persistent;
+    private final long rotationIntervalMs;
+    private final int segmentCount;
+    private final Counter persistFailures;
+    private final ReadWriteLock rotation = new ReentrantReadWriteLock();
+
+    private volatile List<ConcurrentHashMap<String, Entry>> segments;
+
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${banking.idempotency.persistent:true}") boolean persistent,
+                            @Value("${banking.idempotency.rotation-interval-ms:3600000}") long rotationIntervalMs,
+                            @Value("${banking.idempotency.segments:24}") int segmentCount) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.persistent = persistent;
+        this.rotationIntervalMs = rotationIntervalMs;
+        this.segmentCount = segmentCount;
+        this.persistFailures = meterRegistry.counter("banking.idempotency.persist.failures");
+        List<ConcurrentHashMap<String, Entry>> initial = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            initial.add(new ConcurrentHashMap<>());
+        }
+        this.segments = List.copyOf(initial);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!persistent) {
+            return;
+        }
+        Instant now = Instant.now();
+        for (IdempotencyRecord record : idempotencyRecordRepository.findAllByCreatedAtAfter(now.minus(ttl()))) {
+            long age = Duration.between(record.getCreatedAt(), now).toMillis();
+            int segment = (int) Math.min(Math.max(age, 0) / rotationIntervalMs, segmentCount - 1);
+            segments.get(segment).put(record.getIdempotencyKey(), new Entry(record.getFingerprint(),
+                    CompletableFuture.completedFuture(new StoredResponse(record.getStatus(), record.getBody()))));
+        }
+    }
+
+    /**
+     * Runs the action once per key. A request repeating a completed key gets the stored response,
+     * one repeating a key that is still in flight or was used for a different request is rejected.
+     * Failed actions are forgotten, so the client can retry them.
+     */
+    public ResponseEntity<String> execute(String key, String fingerprint, Supplier<ResponseEntity<String>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw ApiError.INVALID_IDEMPOTENCY_KEY;
+        }
+
+        Entry entry = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = reserve(key, entry);
+        if (existing != null) {
+            return replay(existing, fingerprint);
+        }
+
+        ResponseEntity<String> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            segments.forEach(segment -> segment.remove(key, entry));
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+        StoredResponse stored = new StoredResponse(response.getStatusCode().value(), response.getBody());
+        entry.response().complete(stored);
+        persist(key, fingerprint, stored);
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${banking.idempotency.rotation-interval-ms:3600000}",
+            initialDelayString = "${banking.idempotency.rotation-interval-ms:3600000}")
+    public void rotate() {
+        List<ConcurrentHashMap<String, Entry>> rotated = new ArrayList<>(segmentCount);
+        rotated.add(new ConcurrentHashMap<>());
+        rotation.writeLock().lock();
+        try {
+            rotated.addAll(segments.subList(0, segmentCount - 1));
+            segments = List.copyOf(rotated);
+        } finally {
+            rotation.writeLock().unlock();
+        }
+        if (persistent) {
+            idempotencyRecordRepository.deleteCreatedBefore(Instant.now().minus(ttl()));
+        }
+    }
+
+    /**
+     * Looks the key up and inserts it under the read lock, so a rotation cannot swap the segments
+     * between the two and let a concurrent request with the same key miss this one.
+     */
+    private Entry reserve(String key, Entry entry) {
+        rotation.readLock().lock();
+        try {
+            List<ConcurrentHashMap<String, Entry>> current = segments;
+            for (ConcurrentHashMap<String, Entry> segment : current) {
+                Entry existing = segment.get(key);
+                if (existing != null) {
+                    return existing;
+                }
+            }
+            return current.get(0).putIfAbsent(key, entry);
+        } finally {
+            rotation.readLock().unlock();
+        }
+    }
+
+    private static ResponseEntity<String> replay(Entry entry, String fingerprint) {
+        if (!entry.fingerprint().equals(fingerprint)) {
+            throw ApiError.IDEMPOTENCY_KEY_REUSED;
+        }
+        StoredResponse stored = entry.response().getNow(null);
+        if (stored == null) {
+            throw ApiError.IDEMPOTENCY_KEY_IN_PROGRESS;
+        }
+        return ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.body());
+    }
+
+    private void persist(String key, String fingerprint, StoredResponse stored) {
+        if (!persistent) {
+            return;
+        }
+        try {
+            idempotencyRecordRepository.save(new IdempotencyRecord(key, fingerprint, stored.status(), stored.body(), Instant.now()));
+        } catch (RuntimeException e) {
+            persistFailures.increment();
+            log.warn("Could not persist the response for idempotency key {}; only this instance will replay it", key, e);
+        }
+    }
+
+    private Duration ttl() {
+        return Duration.ofMillis(rotationIntervalMs * segmentCount);
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<StoredResponse> response) {
+    }
+
+    private record StoredResponse(int status, String body) {
+    }
+}
@@ -0,0 +1,246 @@
+package com.banking.journal;
+
+import com.banking.account.Account;
+import com.banking.account.AccountService;
+import com.banking.balance.Money;
+import com.banking.ledger.Ledger;
+import com.banking.ledger.LedgerEntry;
+import com.banking.transaction.Transaction;
+import com.banking.transaction.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies durable journal records to the database in batches: the transaction rows, the balance
+ * change of every key the records list and the applied sequence are written in one transaction.
+ * On startup it first replays whatever the journal holds beyond the stored checkpoint. A record
+ * that keeps failing while the database is reachable is dead-lettered so it cannot block the rest.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class JournalApplier implements InitializingBean, DisposableBean {
+
+    static final String CHECKPOINT = "transactions";
+
+    private final TransactionJournal transactionJournal;
+    private final JournalCheckpointRepository journalCheckpointRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountService accountService;
+    private final Ledger ledger;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long retryDelayMs;
+    private final int maxAttempts;
+    private final Path deadLetterPath;
+
+    private Thread applierThread;
+    private volatile boolean running;
+
+    public JournalApplier(TransactionJournal transactionJournal,
+                          JournalCheckpointRepository journalCheckpointRepository,
+                          TransactionRepository transactionRepository,
+                          AccountService accountService,
+                          Ledger ledger,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${banking.journal.apply-batch-size:500}") int batchSize,
+                          @Value("${banking.journal.apply-retry-delay-ms:1000}") long retryDelayMs,
+                          @Value("${banking.journal.apply-max-attempts:5}") int maxAttempts,
+                          @Value("${banking.journal.dead-letter-path:data/transactions.journal.dead}") Path deadLetterPath) {
+        this.transactionJournal = transactionJournal;
+        this.journalCheckpointRepository = journalCheckpointRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountService = accountService;
+        this.ledger = ledger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retryDelayMs = retryDelayMs;
+        this.maxAttempts = maxAttempts;
+        this.deadLetterPath = deadLetterPath;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!transactionJournal.isEnabled()) {
+            return;
+        }
+        long appliedSequence = journalCheckpointRepository.findById(CHECKPOINT)
+                .map(JournalCheckpoint::getAppliedSequence)
+                .orElse(0L);
+        List<JournalRecord> unapplied = transactionJournal.open(appliedSequence);
+        for (int start = 0; start < unapplied.size(); start += batchSize) {
+            apply(unapplied.subList(start, Math.min(start + batchSize, unapplied.size())));
+        }
+
+        running = true;
+        applierThread = new Thread(this::applyLoop, "transaction-journal-applier");
+        applierThread.setDaemon(true);
+        applierThread.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        applierThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    void apply(List<JournalRecord> records) {
+        Set<String> accountNumbers = new LinkedHashSet<>();
+        records.forEach(record -> {
+            if (record.type() != null) {
+                accountNumbers.add(record.accountNumber());
+            }
+        });
+        long lastSequence = records.get(records.size() - 1).sequence();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, Account> accounts = accountNumbers.isEmpty() ? Map.of() : accountService.getAccounts(accountNumbers).stream()
+                    .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+            List<Transaction> transactions = new ArrayList<>(records.size());
+            List<LedgerEntry> entries = new ArrayList<>();
+            Map<String, BigDecimal> deltas = new LinkedHashMap<>();
+            for (JournalRecord record : records) {
+                if (record.type() != null) {
+                    transactions.add(Transaction
+                            .builder()
+                            .type(record.type())
+                            .amount(record.amount())
+                            .accountNumber(record.accountNumber())
+                            .targetAccountNumber(record.targetAccountNumber())
+                            .account(accounts.get(record.accountNumber()))
+                            .build());
+                }
+                record.changes().forEach((key, delta) -> change(key, Money.toDecimal(delta), entries, deltas));
+            }
+            transactionRepository.saveAll(transactions);
+            if (ledger.isEnabled()) {
+                ledger.append(entries);
+            } else {
+                accountService.addToBalances(deltas);
+            }
+            journalCheckpointRepository.save(new JournalCheckpoint(CHECKPOINT, lastSequence));
+        });
+
+        transactionJournal.applied(lastSequence);
+    }
+
+    private void change(String key, BigDecimal amount, List<LedgerEntry> entries, Map<String, BigDecimal> deltas) {
+        if (ledger.isEnabled()) {
+            entries.add(ledger.entry(key, amount));
+        }
+        deltas.merge(key, amount, BigDecimal::add);
+    }
+
+    private void applyLoop() {
+        while (running) {
+            try {
+                List<JournalRecord> batch = transactionJournal.takeDurable(batchSize, 100);
+                if (!batch.isEmpty()) {
+                    applyIsolating(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies the records in order. A batch that still fails after {@code maxAttempts} is split in
+     * halves to isolate the failing record, which is dead-lettered once the database is shown to be
+     * reachable; while it is not, the record is retried. Returns false when stopped early.
+     */
+    private boolean applyIsolating(List<JournalRecord> records) throws InterruptedException {
+        RuntimeException failure = applyWithRetries(records);
+        if (failure == null) {
+            return true;
+        }
+        if (records.size() > 1) {
+            int half = records.size() / 2;
+            return applyIsolating(records.subList(0, half)) && applyIsolating(records.subList(half, records.size()));
+        }
+        while (running) {
+            if (databaseReachable()) {
+                deadLetter(records.get(0), failure);
+                return true;
+            }
+            Thread.sleep(retryDelayMs);
+            failure = applyWithRetries(records);
+            if (failure == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RuntimeException applyWithRetries(List<JournalRecord> records) throws InterruptedException {
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= maxAttempts && running; attempt++) {
+            try {
+                apply(records);
+                return null;
+            } catch (RuntimeException e) {
+                failure = e;
+                log.warn("Applying journal records {} to {} failed, attempt {} of {}", records.get(0).sequence(),
+                        records.get(records.size() - 1).sequence(), attempt, maxAttempts, e);
+                Thread.sleep(retryDelayMs);
+            }
+        }
+        return failure == null ? new IllegalStateException("Journal applier stopped") : failure;
+    }
+
+    private boolean databaseReachable() {
+        try {
+            journalCheckpointRepository.findById(CHECKPOINT);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the record to the dead-letter file and moves the checkpoint past it. Its balance change
+     * is already in memory, so the database stays behind by it until the record is repaired by hand.
+     */
+    private void deadLetter(JournalRecord record, RuntimeException failure) {
+        try {
+            if (deadLetterPath.getParent() != null) {
+                Files.createDirectories(deadLetterPath.getParent());
+            }
+            Files.writeString(deadLetterPath, record + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            transactionTemplate.executeWithoutResult(status ->
+                    journalCheckpointRepository.save(new JournalCheckpoint(CHECKPOINT, record.sequence())));
+        } catch (IOException | RuntimeException e) {
+            failure.addSuppressed(e);
+            throw new IllegalStateException("Cannot dead-letter journal record " + record.sequence(), failure);
+        }
+        transactionJournal.applied(record.sequence());
+        log.error("Dead-lettered journal record {} to {}", record, deadLetterPath, failure);
+    }
+}
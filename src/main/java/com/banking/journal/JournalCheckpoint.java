@@ -0,0 +1,18 @@
+package com.banking.journal;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class JournalCheckpoint {
+    @Id
+    private String name;
+
+    private long appliedSequence;
+}
@@ -0,0 +1,101 @@
+package com.banking.journal;
+
+import com.banking.TransactionType;
+import com.banking.transaction.Transaction;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One journaled operation together with the balance change, in minor units, of every key it
+ * touched: the bucket a credit landed on rather than the account it was addressed to. A record
+ * without a type only moves balance between keys, e.g. a bucket rebalance, and has no transaction
+ * row. Encoded as the sequence followed by length-prefixed UTF-8 strings, where a missing value is
+ * written with length -1, and the count of changes followed by key and delta pairs.
+ */
+public record JournalRecord(long sequence,
+                            TransactionType type,
+                            String accountNumber,
+                            String targetAccountNumber,
+                            BigDecimal amount,
+                            Map<String, Long> changes) {
+
+    static JournalRecord of(long sequence, Transaction transaction, Map<String, Long> changes) {
+        if (transaction == null) {
+            return new JournalRecord(sequence, null, null, null, null, changes);
+        }
+        return new JournalRecord(sequence, transaction.getType(), transaction.getAccountNumber(),
+                transaction.getTargetAccountNumber(), transaction.getAmount(), changes);
+    }
+
+    byte[] encode() {
+        byte[] type = this.type == null ? null : this.type.name().getBytes(StandardCharsets.UTF_8);
+        byte[] account = bytes(accountNumber);
+        byte[] target = bytes(targetAccountNumber);
+        byte[] amount = this.amount == null ? null : this.amount.toPlainString().getBytes(StandardCharsets.UTF_8);
+        byte[][] keys = changes.keySet().stream().map(JournalRecord::bytes).toArray(byte[][]::new);
+
+        int size = Long.BYTES + 5 * Integer.BYTES + length(type) + length(account) + length(target) + length(amount);
+        for (byte[] key : keys) {
+            size += Integer.BYTES + key.length + Long.BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(sequence);
+        put(buffer, type);
+        put(buffer, account);
+        put(buffer, target);
+        put(buffer, amount);
+        buffer.putInt(keys.length);
+        int i = 0;
+        for (long delta : changes.values()) {
+            put(buffer, keys[i++]);
+            buffer.putLong(delta);
+        }
+        return buffer.array();
+    }
+
+    static JournalRecord decode(ByteBuffer buffer) {
+        long sequence = buffer.getLong();
+        String type = get(buffer);
+        String accountNumber = get(buffer);
+        String targetAccountNumber = get(buffer);
+        String amount = get(buffer);
+        int count = buffer.getInt();
+        Map<String, Long> changes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            changes.put(get(buffer), buffer.getLong());
+        }
+        return new JournalRecord(sequence, type == null ? null : TransactionType.valueOf(type), accountNumber,
+                targetAccountNumber, amount == null ? null : new BigDecimal(amount), changes);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void put(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    private static String get(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,365 @@
+package com.banking.journal;
+
+import com.banking.balance.BalanceEngine;
+import com.banking.error.ApiError;
+import com.banking.transaction.Transaction;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Memory-mapped write-ahead journal of balance operations. Records are appended under a lock
+ * and acknowledged once a background thread has forced them to disk; concurrent appends that
+ * arrive within the group commit window share one force. Durable records are handed to the
+ * {@link JournalApplier}, and the file is reused from the start once everything in it is applied.
+ * <p>
+ * A record is {@code length, crc32c, payload}. Reading stops at the first record with a bad
+ * checksum or a sequence that does not follow its predecessor.
+ * <p>
+ * An appended record is never timed out: its balance change is already visible, so it either
+ * becomes durable or is discarded. When a force fails, the journal zeroes everything from the
+ * failed range on, so replay stops there, reverts the balance changes of the discarded records and
+ * fails their futures; it rejects appends meanwhile and for good if the range cannot be zeroed.
+ */
+@Slf4j
+@Component
+public class TransactionJournal {
+
+    private static final int MAGIC = 0x4A524E4C;
+    private static final int HEADER = 16;
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+
+    private final BalanceEngine balanceEngine;
+    private final boolean enabled;
+    private final Path path;
+    private final int capacity;
+    private final long groupCommitNanos;
+    private final int maxBatch;
+    private final long appendTimeoutMs;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition hasPending = appendLock.newCondition();
+    private final Condition spaceAvailable = appendLock.newCondition();
+    private final Deque<Pending> pending = new ArrayDeque<>();
+    private final BlockingQueue<JournalRecord> durable = new LinkedBlockingQueue<>();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position = HEADER;
+    private int forcedPosition = HEADER;
+    private long lastSequence;
+    private long appliedSequence;
+    private Thread syncThread;
+    private volatile boolean running;
+    private volatile RuntimeException failure;
+
+    public TransactionJournal(BalanceEngine balanceEngine,
+                              @Value("${banking.journal.enabled:false}") boolean enabled,
+                              @Value("${banking.journal.path:data/transactions.journal}") Path path,
+                              @Value("${banking.journal.size-mb:64}") int sizeMb,
+                              @Value("${banking.journal.group-commit-window-us:500}") long groupCommitMicros,
+                              @Value("${banking.journal.max-batch:256}") int maxBatch,
+                              @Value("${banking.journal.append-timeout-ms:5000}") long appendTimeoutMs) {
+        this.balanceEngine = balanceEngine;
+        this.enabled = enabled;
+        this.path = path;
+        this.capacity = sizeMb * 1024 * 1024;
+        this.groupCommitNanos = TimeUnit.MICROSECONDS.toNanos(groupCommitMicros);
+        this.maxBatch = maxBatch;
+        this.appendTimeoutMs = appendTimeoutMs;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Maps the journal file and returns the records after the given applied sequence, which
+     * have to be applied before new records are appended.
+     */
+    List<JournalRecord> open(long appliedSequence) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal " + path, e);
+        }
+
+        List<JournalRecord> unapplied = new ArrayList<>();
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.force(0, HEADER);
+        } else {
+            readRecords(appliedSequence, unapplied);
+        }
+        if (lastSequence <= appliedSequence) {
+            position = HEADER;
+        }
+        this.appliedSequence = appliedSequence;
+        this.lastSequence = Math.max(lastSequence, appliedSequence);
+        this.forcedPosition = position;
+
+        running = true;
+        syncThread = new Thread(this::syncLoop, "transaction-journal-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+        return unapplied;
+    }
+
+    /**
+     * Appends the operation with the balance changes it made and returns a future that completes
+     * once it is durable, or fails with {@link ApiError#JOURNAL_UNAVAILABLE} if it was discarded.
+     * A null transaction journals a balance move without a transaction row. Callers hold the
+     * account locks while appending, so the journal order matches the order of balance changes.
+     */
+    public CompletableFuture<Void> append(Transaction transaction, Map<String, Long> changes) {
+        appendLock.lock();
+        try {
+            JournalRecord record = JournalRecord.of(lastSequence + 1, transaction, changes);
+            byte[] payload = record.encode();
+            reserve(RECORD_HEADER + payload.length);
+
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            buffer.putInt(position, payload.length);
+            buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+            buffer.put(position + RECORD_HEADER, payload);
+            position += RECORD_HEADER + payload.length;
+            lastSequence = record.sequence();
+
+            Pending appended = new Pending(record, new CompletableFuture<>());
+            pending.add(appended);
+            hasPending.signal();
+            return appended.durable();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    List<JournalRecord> takeDurable(int max, long timeoutMs) throws InterruptedException {
+        List<JournalRecord> records = new ArrayList<>(max);
+        JournalRecord first = durable.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (first != null) {
+            records.add(first);
+            durable.drainTo(records, max - 1);
+        }
+        return records;
+    }
+
+    void applied(long sequence) {
+        appendLock.lock();
+        try {
+            appliedSequence = sequence;
+            spaceAvailable.signalAll();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        appendLock.lock();
+        try {
+            hasPending.signalAll();
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            syncThread.join(TimeUnit.SECONDS.toMillis(5));
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readRecords(long appliedSequence, List<JournalRecord> unapplied) {
+        int offset = HEADER;
+        long previous = -1;
+        while (offset + RECORD_HEADER <= capacity) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + RECORD_HEADER + length > capacity) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(offset + RECORD_HEADER, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+                break;
+            }
+            JournalRecord record = JournalRecord.decode(ByteBuffer.wrap(payload));
+            if (previous >= 0 && record.sequence() != previous + 1) {
+                break;
+            }
+            if (record.sequence() > appliedSequence) {
+                unapplied.add(record);
+            }
+            previous = record.sequence();
+            offset += RECORD_HEADER + length;
+        }
+        position = offset;
+        lastSequence = Math.max(previous, 0);
+    }
+
+    /**
+     * Makes room for a record: restarts at the beginning of the file once every record in it
+     * is applied, or waits for the applier to catch up when the file is full.
+     */
+    private void reserve(int size) {
+        if (size > capacity - HEADER) {
+            throw new IllegalArgumentException("Journal record too large");
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(appendTimeoutMs);
+        while (true) {
+            if (failure != null) {
+                throw ApiError.JOURNAL_UNAVAILABLE;
+            }
+            boolean drained = appliedSequence == lastSequence && pending.isEmpty();
+            if (drained && position > HEADER && (position + size > capacity || position > capacity / 2)) {
+                position = HEADER;
+                forcedPosition = HEADER;
+            }
+            if (position + size <= capacity) {
+                return;
+            }
+            if (remaining <= 0) {
+                throw ApiError.JOURNAL_UNAVAILABLE;
+            }
+            try {
+                remaining = spaceAvailable.awaitNanos(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for journal space", e);
+            }
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            List<Pending> batch;
+            int from;
+            int to;
+            appendLock.lock();
+            try {
+                while (running && pending.isEmpty()) {
+                    hasPending.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                long window = groupCommitNanos;
+                while (running && pending.size() < maxBatch && window > 0) {
+                    window = hasPending.awaitNanos(window);
+                }
+                batch = new ArrayList<>(pending);
+                pending.clear();
+                from = forcedPosition;
+                to = position;
+                forcedPosition = position;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                appendLock.unlock();
+            }
+
+            try {
+                force(from, to - from);
+            } catch (RuntimeException e) {
+                discard(from, batch, e);
+                continue;
+            }
+            for (Pending appended : batch) {
+                durable.add(appended.record());
+                appended.durable().complete(null);
+            }
+        }
+    }
+
+    /**
+     * Drops the failed batch and everything appended after it. Appends are rejected until the
+     * dropped range is zeroed on disk and its balance changes are reverted; if either step fails
+     * the journal stays unavailable.
+     */
+    private void discard(int from, List<Pending> batch, RuntimeException cause) {
+        List<Pending> discarded = new ArrayList<>(batch);
+        int end;
+        appendLock.lock();
+        try {
+            failure = cause;
+            discarded.addAll(pending);
+            pending.clear();
+            end = position;
+            position = from;
+            forcedPosition = from;
+            lastSequence = discarded.get(0).record().sequence() - 1;
+            buffer.put(from, new byte[end - from]);
+            spaceAvailable.signalAll();
+        } finally {
+            appendLock.unlock();
+        }
+
+        boolean recovered = true;
+        try {
+            force(from, end - from);
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+            recovered = false;
+        }
+        Map<String, Long> changes = new HashMap<>();
+        discarded.forEach(appended -> appended.record().changes()
+                .forEach((key, delta) -> changes.merge(key, delta, Long::sum)));
+        try {
+            balanceEngine.revert(changes);
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+            recovered = false;
+        }
+        log.error("Journal force failed, discarded records {} to {}{}", discarded.get(0).record().sequence(),
+                discarded.get(discarded.size() - 1).record().sequence(),
+                recovered ? "" : "; journal is unavailable until restarted", cause);
+        if (recovered) {
+            failure = null;
+        }
+        discarded.forEach(appended -> appended.durable().completeExceptionally(ApiError.JOURNAL_UNAVAILABLE));
+    }
+
+    void force(int from, int length) {
+        buffer.force(from, length);
+    }
+
+    private record Pending(JournalRecord record, CompletableFuture<Void> durable) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.banking.ledger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Append-only log of balance changes. In ledger mode an account's balance is its snapshot,
+ * stored on the account row together with the id of the last entry it covers, plus the
+ * sum of the entries appended after that position.
+ */
+@Component
+public class Ledger {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final boolean enabled;
+
+    public Ledger(LedgerEntryRepository ledgerEntryRepository,
+                  @Value("${banking.ledger.enabled:false}") boolean enabled) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public LedgerEntry entry(String accountNumber, BigDecimal amount) {
+        return LedgerEntry.builder().accountNumber(accountNumber).amount(amount).build();
+    }
+
+    @Transactional
+    public void append(List<LedgerEntry> entries) {
+        ledgerEntryRepository.saveAll(entries);
+    }
+
+    public BigDecimal balanceOf(String accountNumber, BigDecimal snapshot, Long position) {
+        return balanceOf(accountNumber, snapshot, position, Long.MAX_VALUE);
+    }
+
+    public BigDecimal balanceOf(String accountNumber, BigDecimal snapshot, Long position, long upToId) {
+        return snapshot.add(ledgerEntryRepository.sumBetween(accountNumber, position == null ? 0L : position, upToId));
+    }
+
+    public long lastEntryId() {
+        return ledgerEntryRepository.findLastId();
+    }
+
+    public long lastEntryIdOf(String accountNumber) {
+        return ledgerEntryRepository.findLastIdOf(accountNumber);
+    }
+
+    public List<String> accountsChangedAfter(long entryId) {
+        return ledgerEntryRepository.findAccountNumbersChangedAfter(entryId);
+    }
+}
@@ -0,0 +1,45 @@
+package com.banking.ledger;
+
+import com.banking.id.PooledSequenceGenerator;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Immutable
+@Table(indexes = @Index(name = "idx_ledger_entry_account_number_id", columnList = "accountNumber, id"))
+public class LedgerEntry {
+    @Id
+    @GeneratedValue(generator = "ledger_seq")
+    @GenericGenerator(name = "ledger_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "ledger_seq"))
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private String accountNumber;
+
+    @Column(nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @CreationTimestamp
+    private Instant createdAt;
+}
@@ -0,0 +1,29 @@
+package com.banking.ledger;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    @Query("""
+            select coalesce(sum(e.amount), 0) from LedgerEntry e
+            where e.accountNumber = :accountNumber and e.id > :afterId and e.id <= :upToId""")
+    BigDecimal sumBetween(@Param("accountNumber") String accountNumber,
+                          @Param("afterId") long afterId,
+                          @Param("upToId") long upToId);
+
+    @Query("select coalesce(max(e.id), 0) from LedgerEntry e")
+    long findLastId();
+
+    @Query("select coalesce(max(e.id), 0) from LedgerEntry e where e.accountNumber = :accountNumber")
+    long findLastIdOf(@Param("accountNumber") String accountNumber);
+
+    @Query("select distinct e.accountNumber from LedgerEntry e where e.id > :afterId")
+    List<String> findAccountNumbersChangedAfter(@Param("afterId") long afterId);
+}
@@ -0,0 +1,79 @@
+package com.banking.ratelimit;
+
+import com.banking.error.ApiError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds transaction requests while the JDBC pool is saturated. Every sample interval the mean
+ * time spent waiting for a connection since the previous sample is taken from the pool's
+ * {@value #ACQUIRE_TIMER} timer; while it exceeds the threshold, requests are rejected with 429
+ * before they queue for a connection. When threads are waiting but no connection was handed out
+ * at all, the whole interval counts as waiting.
+ */
+@Component
+@Profile("!reactive")
+public class AdmissionControl {
+
+    static final String ACQUIRE_TIMER = "hikaricp.connections.acquire";
+    static final String PENDING_GAUGE = "hikaricp.connections.pending";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long maxPoolWaitNanos;
+    private final Counter rejections;
+
+    private long lastCount;
+    private double lastTotalNanos;
+    private long lastSampledAt = System.nanoTime();
+    private volatile long poolWaitNanos;
+    private volatile boolean overloaded;
+
+    public AdmissionControl(MeterRegistry meterRegistry,
+                            @Value("${banking.admission.enabled:false}") boolean enabled,
+                            @Value("${banking.admission.max-pool-wait-ms:50}") long maxPoolWaitMs) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxPoolWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxPoolWaitMs);
+        this.rejections = meterRegistry.counter("banking.admission.rejected");
+        Gauge.builder("banking.admission.pool.wait", this, control -> control.poolWaitNanos / 1e9)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public void admit() {
+        if (enabled && overloaded) {
+            rejections.increment();
+            throw ApiError.OVERLOADED;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banking.admission.sample-interval-ms:100}")
+    public synchronized void sample() {
+        Timer acquire = meterRegistry.find(ACQUIRE_TIMER).timer();
+        if (acquire == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long count = acquire.count();
+        double totalNanos = acquire.totalTime(TimeUnit.NANOSECONDS);
+        Gauge pending = meterRegistry.find(PENDING_GAUGE).gauge();
+        if (count > lastCount) {
+            poolWaitNanos = (long) ((totalNanos - lastTotalNanos) / (count - lastCount));
+        } else {
+            poolWaitNanos = pending != null && pending.value() > 0 ? now - lastSampledAt : 0;
+        }
+        overloaded = poolWaitNanos > maxPoolWaitNanos;
+        lastCount = count;
+        lastTotalNanos = totalNanos;
+        lastSampledAt = now;
+    }
+}
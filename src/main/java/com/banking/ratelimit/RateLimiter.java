@@ -0,0 +1,157 @@
+package com.banking.ratelimit;
+
+import com.banking.error.ApiError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-client and per-account token buckets for the transaction endpoints. A client is identified
+ * by its remote address; the {@value #CLIENT_HEADER} header is only trusted on requests arriving
+ * from one of the configured proxy addresses. Buckets that have refilled completely are dropped by
+ * a periodic sweep, so only clients and accounts active within the last burst window are kept in
+ * memory. Each map holds at most {@code max-buckets} entries; keys beyond that share one overflow
+ * bucket, so a flood of new keys cannot grow the heap.
+ */
+@Component
+@Profile("!reactive")
+public class RateLimiter {
+
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    private final boolean enabled;
+    private final double clientRate;
+    private final int clientBurst;
+    private final double accountRate;
+    private final int accountBurst;
+    private final Set<String> trustedProxies;
+    private final int maxBuckets;
+    private final TokenBucket clientOverflow;
+    private final TokenBucket accountOverflow;
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> accountBuckets = new ConcurrentHashMap<>();
+    private final Counter clientRejections;
+    private final Counter accountRejections;
+
+    public RateLimiter(MeterRegistry meterRegistry,
+                       @Value("${banking.ratelimit.enabled:false}") boolean enabled,
+                       @Value("${banking.ratelimit.client.rate:100}") double clientRate,
+                       @Value("${banking.ratelimit.client.burst:200}") int clientBurst,
+                       @Value("${banking.ratelimit.account.rate:20}") double accountRate,
+                       @Value("${banking.ratelimit.account.burst:40}") int accountBurst,
+                       @Value("${banking.ratelimit.trusted-proxies:}") String trustedProxies,
+                       @Value("${banking.ratelimit.max-buckets:100000}") int maxBuckets) {
+        this.enabled = enabled;
+        this.clientRate = clientRate;
+        this.clientBurst = clientBurst;
+        this.accountRate = accountRate;
+        this.accountBurst = accountBurst;
+        this.trustedProxies = Arrays.stream(trustedProxies.split(","))
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.maxBuckets = maxBuckets;
+        long now = System.nanoTime();
+        this.clientOverflow = new TokenBucket(clientRate, clientBurst, now);
+        this.accountOverflow = new TokenBucket(accountRate, accountBurst, now);
+        this.clientRejections = meterRegistry.counter("banking.ratelimit.rejected", "scope", "client");
+        this.accountRejections = meterRegistry.counter("banking.ratelimit.rejected", "scope", "account");
+        meterRegistry.gaugeMapSize("banking.ratelimit.buckets", Tags.of("scope", "client"), clientBuckets);
+        meterRegistry.gaugeMapSize("banking.ratelimit.buckets", Tags.of("scope", "account"), accountBuckets);
+    }
+
+    /**
+     * Takes a token from the client's bucket and, when given, from the account's bucket. If the
+     * account's bucket rejects the request, the client's token is given back.
+     */
+    public void acquire(HttpServletRequest request, String accountNumber) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        TokenBucket client = bucket(clientBuckets, clientOf(request), clientRate, clientBurst, clientOverflow, now);
+        if (!client.tryAcquire(now)) {
+            clientRejections.increment();
+            throw ApiError.RATE_LIMITED;
+        }
+        if (accountNumber != null
+                && !bucket(accountBuckets, accountNumber, accountRate, accountBurst, accountOverflow, now).tryAcquire(now)) {
+            client.release();
+            accountRejections.increment();
+            throw ApiError.RATE_LIMITED;
+        }
+    }
+
+    /**
+     * Takes one token per operation of a batch from the client's bucket and, for every account in
+     * {@code accountNumbers}, one token per occurrence from that account's bucket. Either all tokens
+     * are taken or, when any bucket rejects, the ones already taken are given back.
+     */
+    public void acquire(HttpServletRequest request, int operations, Collection<String> accountNumbers) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        TokenBucket client = bucket(clientBuckets, clientOf(request), clientRate, clientBurst, clientOverflow, now);
+        if (!client.tryAcquire(now, operations)) {
+            clientRejections.increment();
+            throw ApiError.RATE_LIMITED;
+        }
+        Map<String, Integer> perAccount = new HashMap<>();
+        accountNumbers.forEach(accountNumber -> perAccount.merge(accountNumber, 1, Integer::sum));
+        Map<TokenBucket, Integer> taken = new HashMap<>();
+        for (Map.Entry<String, Integer> account : perAccount.entrySet()) {
+            TokenBucket bucket = bucket(accountBuckets, account.getKey(), accountRate, accountBurst, accountOverflow, now);
+            if (!bucket.tryAcquire(now, account.getValue())) {
+                taken.forEach(TokenBucket::release);
+                client.release(operations);
+                accountRejections.increment();
+                throw ApiError.RATE_LIMITED;
+            }
+            taken.merge(bucket, account.getValue(), Integer::sum);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banking.ratelimit.sweep-interval-ms:10000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        clientBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        accountBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (trustedProxies.contains(address)) {
+            String client = request.getHeader(CLIENT_HEADER);
+            if (client != null) {
+                return client;
+            }
+        }
+        return address;
+    }
+
+    private TokenBucket bucket(Map<String, TokenBucket> buckets, String key, double rate, int burst,
+                               TokenBucket overflow, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            return overflow;
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(rate, burst, now));
+    }
+}
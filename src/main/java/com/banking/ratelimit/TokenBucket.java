@@ -0,0 +1,60 @@
+package com.banking.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket kept as a single timestamp, the time at which the bucket is full again, so taking
+ * a token is one compare-and-set without a lock. A bucket refilling {@code rate} tokens per second
+ * up to {@code burst} tokens has a token left as long as that time is at most {@code burst}
+ * emission intervals ahead of now.
+ */
+class TokenBucket {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(double rate, int burst, long now) {
+        this.intervalNanos = (long) (1_000_000_000L / rate);
+        this.capacityNanos = intervalNanos * burst;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    boolean tryAcquire(long now) {
+        return tryAcquire(now, 1);
+    }
+
+    /**
+     * Takes all the tokens or none of them.
+     */
+    boolean tryAcquire(long now, int tokens) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos * tokens;
+            if (next - now > capacityNanos) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire}.
+     */
+    void release() {
+        release(1);
+    }
+
+    void release(int tokens) {
+        fullAt.addAndGet(-intervalNanos * tokens);
+    }
+
+    /**
+     * A full bucket behaves like a new one and can be dropped.
+     */
+    boolean isFull(long now) {
+        return fullAt.get() - now <= 0;
+    }
+}
@@ -0,0 +1,109 @@
+package com.banking.reactive;
+
+import com.banking.TransactionType;
+import com.banking.account.AccountBalance;
+import com.banking.account.AccountBuckets;
+import com.banking.account.AccountCreateDto;
+import com.banking.account.AccountView;
+import com.banking.error.ApiError;
+import com.banking.transaction.TransactionView;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * WebFlux variant of the account endpoints, including the account history.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/accounts")
+@RequiredArgsConstructor
+public class ReactiveAccountController {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_HISTORY_PAGE_SIZE = 500;
+    private static final int STREAM_PREFETCH = 256;
+
+    private final ReactiveAccountService reactiveAccountService;
+    private final ReactiveTransactionService reactiveTransactionService;
+
+    @PostMapping
+    public Mono<ResponseEntity<AccountView>> createAccount(@RequestBody AccountCreateDto accountCreateDto) {
+        if (StringUtils.isNotBlank(accountCreateDto.getAccountNumber())
+                && accountCreateDto.getAccountNumber().indexOf(AccountBuckets.SEPARATOR) < 0) {
+            if (!accountCreateDto.getInitialBalance().equals(BigDecimal.ZERO)) {
+
+                return reactiveAccountService.createAccount(accountCreateDto)
+                        .map(account -> new ResponseEntity<>(AccountView.of(account), HttpStatus.CREATED));
+            }
+            throw ApiError.INVALID_INITIAL_BALANCE;
+        }
+        throw ApiError.INVALID_ACCOUNT_NUMBER;
+    }
+
+    @GetMapping("/{accountNumber}")
+    public Mono<ResponseEntity<AccountView>> getAccountInfo(@PathVariable String accountNumber) {
+        if (StringUtils.isNotBlank(accountNumber)) {
+            return reactiveAccountService.getAccountInfo(accountNumber).map(account -> ResponseEntity.ok(AccountView.of(account)));
+        }
+        throw ApiError.INVALID_ACCOUNT_NUMBER;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<AccountView>>> getAllAccounts(@RequestParam(required = false) Long after,
+                                                                  @RequestParam(defaultValue = "100") int limit) {
+        if (limit > 0 && limit <= MAX_PAGE_SIZE) {
+            return reactiveAccountService.getAccountsPage(after, limit)
+                    .map(AccountView::of)
+                    .collectList()
+                    .map(accounts -> {
+                        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                        if (accounts.size() == limit) {
+                            response.header(NEXT_CURSOR_HEADER, String.valueOf(accounts.get(accounts.size() - 1).id()));
+                        }
+                        return response.body(accounts);
+                    });
+        }
+        throw ApiError.INVALID_PAGE_SIZE;
+    }
+
+    @GetMapping(params = "format=ndjson", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AccountBalance> streamAllAccounts() {
+        return reactiveAccountService.streamAccounts().limitRate(STREAM_PREFETCH);
+    }
+
+    @GetMapping("/{accountNumber}/transactions")
+    public Mono<ResponseEntity<List<TransactionView>>> getHistory(@PathVariable String accountNumber,
+                                                                  @RequestParam(required = false) Long before,
+                                                                  @RequestParam(required = false) TransactionType type,
+                                                                  @RequestParam(required = false) Instant from,
+                                                                  @RequestParam(required = false) Instant to,
+                                                                  @RequestParam(defaultValue = "50") int limit) {
+        if (StringUtils.isNotBlank(accountNumber)) {
+            if (limit > 0 && limit <= MAX_HISTORY_PAGE_SIZE) {
+                return reactiveTransactionService.getHistory(accountNumber, before, type, from, to, limit)
+                        .collectList()
+                        .map(transactions -> {
+                            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                            if (transactions.size() == limit) {
+                                response.header(NEXT_CURSOR_HEADER, String.valueOf(transactions.get(transactions.size() - 1).id()));
+                            }
+                            return response.body(transactions);
+                        });
+            }
+            throw ApiError.INVALID_PAGE_SIZE;
+        }
+        throw ApiError.INVALID_ACCOUNT_NUMBER;
+    }
+}
@@ -0,0 +1,132 @@
+package com.banking.reactive;
+
+import com.banking.account.Account;
+import com.banking.account.AccountBalance;
+import com.banking.account.AccountCreateDto;
+import com.banking.error.ApiError;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Account reads and balance updates of the {@code reactive} profile. Balances are changed with a
+ * single conditional update per account, so no lock or version read is needed and a debit that
+ * would overdraw the account simply matches no row. Credits to a bucketed account land on its
+ * first row; debits from one are rejected.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveAccountService {
+
+    private static final String SELECT_ACCOUNT = """
+            select a.id, a.account_number, a.buckets, a.version,
+                a.balance + coalesce((select sum(b.balance) from account b where b.parent_account_number = a.account_number), 0) as total
+            from account a""";
+
+    private final DatabaseClient databaseClient;
+    private final ReactiveIdAllocator reactiveIdAllocator;
+
+    public Mono<Account> createAccount(AccountCreateDto accountCreateDto) {
+        return reactiveIdAllocator.next("account_seq")
+                .flatMap(id -> databaseClient.sql("""
+                                insert into account (id, account_number, balance, version)
+                                select :id, :accountNumber, :balance, 0
+                                where not exists (select 1 from account where account_number = :accountNumber)""")
+                        .bind("id", id)
+                        .bind("accountNumber", accountCreateDto.getAccountNumber())
+                        .bind("balance", accountCreateDto.getInitialBalance())
+                        .fetch()
+                        .rowsUpdated()
+                        .flatMap(inserted -> inserted == 0
+                                ? Mono.<Account>error(ApiError.ACCOUNT_EXISTS)
+                                : Mono.just(Account.builder()
+                                .id(id)
+                                .accountNumber(accountCreateDto.getAccountNumber())
+                                .balance(accountCreateDto.getInitialBalance())
+                                .version(0L)
+                                .build())))
+                .onErrorMap(DataIntegrityViolationException.class, e -> ApiError.ACCOUNT_EXISTS);
+    }
+
+    public Mono<Account> getAccountInfo(String accountNumber) {
+        return databaseClient.sql(SELECT_ACCOUNT + " where a.account_number = :accountNumber and a.parent_account_number is null")
+                .bind("accountNumber", accountNumber)
+                .map(ReactiveAccountService::account)
+                .one()
+                .switchIfEmpty(Mono.error(ApiError.ACCOUNT_NOT_FOUND));
+    }
+
+    public Flux<Account> getAccountsPage(Long afterId, int limit) {
+        return databaseClient.sql(SELECT_ACCOUNT + " where a.id > :afterId and a.parent_account_number is null order by a.id limit :limit")
+                .bind("afterId", afterId == null ? 0L : afterId)
+                .bind("limit", limit)
+                .map(ReactiveAccountService::account)
+                .all();
+    }
+
+    /**
+     * Streams every account; rows are only fetched as fast as the subscriber requests them.
+     */
+    public Flux<AccountBalance> streamAccounts() {
+        return databaseClient.sql(SELECT_ACCOUNT + " where a.parent_account_number is null order by a.id")
+                .map(row -> new AccountBalance(row.get("id", Long.class), row.get("account_number", String.class),
+                        row.get("total", BigDecimal.class)))
+                .all();
+    }
+
+    public Mono<Void> credit(String accountNumber, BigDecimal amount) {
+        return databaseClient.sql("""
+                        update account set balance = balance + :amount, version = coalesce(version, 0) + 1
+                        where account_number = :accountNumber and parent_account_number is null""")
+                .bind("amount", amount)
+                .bind("accountNumber", accountNumber)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated == 0 ? Mono.error(ApiError.ACCOUNT_NOT_FOUND) : Mono.empty());
+    }
+
+    /**
+     * Debits the account row. A bucketed account is rejected rather than checked against the
+     * balance of its first row only; debiting across buckets is left to the servlet stack.
+     */
+    public Mono<Void> debit(String accountNumber, BigDecimal amount) {
+        return databaseClient.sql("""
+                        update account set balance = balance - :amount, version = coalesce(version, 0) + 1
+                        where account_number = :accountNumber and parent_account_number is null
+                          and coalesce(buckets, 1) = 1 and balance >= :amount""")
+                .bind("amount", amount)
+                .bind("accountNumber", accountNumber)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated > 0 ? Mono.<Void>empty() : buckets(accountNumber)
+                        .defaultIfEmpty(0)
+                        .flatMap(buckets -> Mono.error(buckets == 0
+                                ? ApiError.ACCOUNT_NOT_FOUND
+                                : buckets > 1 ? ApiError.BUCKETED_ACCOUNT : ApiError.INSUFFICIENT_FUNDS)));
+    }
+
+    private Mono<Integer> buckets(String accountNumber) {
+        return databaseClient.sql("select coalesce(buckets, 1) from account where account_number = :accountNumber and parent_account_number is null")
+                .bind("accountNumber", accountNumber)
+                .map(row -> row.get(0, Integer.class))
+                .one();
+    }
+
+    private static Account account(Readable row) {
+        return Account.builder()
+                .id(row.get("id", Long.class))
+                .accountNumber(row.get("account_number", String.class))
+                .balance(row.get("total", BigDecimal.class))
+                .buckets(row.get("buckets", Integer.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
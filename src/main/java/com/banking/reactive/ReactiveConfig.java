@@ -0,0 +1,45 @@
+package com.banking.reactive;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Wiring of the {@code reactive} profile. The R2DBC transaction manager is deliberately not a bean,
+ * so {@code @Transactional} keeps resolving to the JPA transaction manager used by the rest of the
+ * application; the reactive services demarcate their transactions with the operator instead.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    public ReactiveConfig(@Value("${banking.ledger.enabled:false}") boolean ledger,
+                          @Value("${banking.journal.enabled:false}") boolean journaled,
+                          @Value("${banking.balance.write-behind.enabled:false}") boolean writeBehind) {
+        if (ledger || journaled || writeBehind) {
+            throw new IllegalStateException("The reactive profile updates account rows directly and cannot be "
+                    + "combined with ledger, journal or write-behind mode");
+        }
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    @Bean
+    public ReactiveIdAllocator reactiveIdAllocator(DatabaseClient databaseClient,
+                                                   @Value("${banking.id.allocation-size:50}") int allocationSize) {
+        return new ReactiveIdAllocator(databaseClient, allocationSize);
+    }
+}
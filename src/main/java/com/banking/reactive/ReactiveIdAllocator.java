@@ -0,0 +1,59 @@
+package com.banking.reactive;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out ids the way the pooled-lo optimizer of {@link com.banking.id.PooledSequenceGenerator}
+ * does: every sequence value reserves a block of {@code allocation-size} ids, so ids allocated here
+ * never collide with the ones Hibernate allocates from the same sequence.
+ */
+public class ReactiveIdAllocator {
+
+    private final DatabaseClient databaseClient;
+    private final int allocationSize;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public ReactiveIdAllocator(DatabaseClient databaseClient, int allocationSize) {
+        this.databaseClient = databaseClient;
+        this.allocationSize = allocationSize;
+    }
+
+    public Mono<Long> next(String sequence) {
+        return Mono.defer(() -> {
+            Block block = blocks.get(sequence);
+            long id = block == null ? -1 : block.next();
+            if (id >= 0) {
+                return Mono.just(id);
+            }
+            return databaseClient.sql("select next value for " + sequence)
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(lo -> {
+                        Block fresh = new Block(lo, lo + allocationSize);
+                        long first = fresh.next();
+                        blocks.put(sequence, fresh);
+                        return first;
+                    });
+        });
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+
+        private long next() {
+            long id = next.getAndIncrement();
+            return id < end ? id : -1;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.banking.reactive;
+
+import com.banking.account.AccountBuckets;
+import com.banking.error.ApiError;
+import com.banking.idempotency.IdempotencyStore;
+import com.banking.transaction.BatchTransactionDto;
+import com.banking.transaction.BatchTransactionResult;
+import com.banking.transaction.TransactionDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * WebFlux variant of the transaction endpoints. It has no rate limiting or admission control, and
+ * requests carrying an {@code Idempotency-Key} are rejected.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/transactions")
+@RequiredArgsConstructor
+public class ReactiveTransactionController {
+
+    private final ReactiveTransactionService reactiveTransactionService;
+
+    @Value("${banking.batch.max-operations:10000}")
+    private int maxBatchOperations;
+
+    @PostMapping("/deposit")
+    public Mono<ResponseEntity<String>> deposit(@RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                                @RequestBody TransactionDto transactionDto) {
+        rejectIdempotencyKey(idempotencyKey);
+        if (AccountBuckets.isAccountNumber(transactionDto.getFromAccount())) {
+            if (isPositive(transactionDto.getAmount())) {
+                return reactiveTransactionService.deposit(transactionDto.getFromAccount(), transactionDto.getAmount())
+                        .thenReturn(ResponseEntity.ok("Deposit successful"));
+            }
+            throw ApiError.INVALID_AMOUNT;
+        }
+        throw ApiError.INVALID_ACCOUNT_NUMBER;
+    }
+
+    @PostMapping("/withdraw")
+    public Mono<ResponseEntity<String>> withdraw(@RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                                 @RequestBody TransactionDto transactionDto) {
+        rejectIdempotencyKey(idempotencyKey);
+        if (AccountBuckets.isAccountNumber(transactionDto.getFromAccount())) {
+            if (isPositive(transactionDto.getAmount())) {
+                return reactiveTransactionService.withdraw(transactionDto.getFromAccount(), transactionDto.getAmount())
+                        .thenReturn(ResponseEntity.ok("Withdrawal successful"));
+            }
+            throw ApiError.INVALID_AMOUNT;
+        }
+        throw ApiError.INVALID_ACCOUNT_NUMBER;
+    }
+
+    @PostMapping("/transfer")
+    public Mono<ResponseEntity<String>> transfer(@RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                                 @RequestBody TransactionDto transactionDto) {
+        rejectIdempotencyKey(idempotencyKey);
+        if (AccountBuckets.isAccountNumber(transactionDto.getFromAccount())
+                && AccountBuckets.isAccountNumber(transactionDto.getToAccount())) {
+            if (isPositive(transactionDto.getAmount())) {
+                return reactiveTransactionService.transfer(transactionDto.getFromAccount(), transactionDto.getToAccount(), transactionDto.getAmount())
+                        .thenReturn(ResponseEntity.ok("Transfer successful"));
+            }
+            throw ApiError.INVALID_AMOUNT;
+        }
+        throw ApiError.INVALID_TRANSFER_PARAMS;
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<List<BatchTransactionResult>>> batch(@RequestBody List<BatchTransactionDto> operations) {
+        if (operations != null && !operations.isEmpty()) {
+            if (operations.size() <= maxBatchOperations) {
+                return reactiveTransactionService.process(operations).map(ResponseEntity::ok);
+            }
+            throw ApiError.BATCH_TOO_LARGE;
+        }
+        throw ApiError.EMPTY_BATCH;
+    }
+
+    /**
+     * Idempotency keys are only honoured on the servlet stack; a keyed request is rejected here
+     * rather than applied without the protection the client asked for.
+     */
+    private static void rejectIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey != null) {
+            throw ApiError.IDEMPOTENCY_KEY_NOT_SUPPORTED;
+        }
+    }
+
+    private static boolean isPositive(BigDecimal amount) {
+        return amount != null && amount.compareTo(BigDecimal.ZERO) > 0;
+    }
+}
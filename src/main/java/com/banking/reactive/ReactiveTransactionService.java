@@ -0,0 +1,165 @@
+package com.banking.reactive;
+
+import com.banking.TransactionType;
+import com.banking.account.AccountBuckets;
+import com.banking.error.ApiError;
+import com.banking.transaction.BatchTransactionDto;
+import com.banking.transaction.BatchTransactionResult;
+import com.banking.transaction.TransactionView;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveTransactionService {
+
+    private static final int BATCH_CONCURRENCY = 16;
+    private static final int LOCK_RETRIES = 3;
+    private static final Duration LOCK_RETRY_BACKOFF = Duration.ofMillis(5);
+
+    private final ReactiveAccountService reactiveAccountService;
+    private final ReactiveIdAllocator reactiveIdAllocator;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator reactiveTransactionalOperator;
+
+    public Mono<Void> deposit(String accountNumber, BigDecimal amount) {
+        return reactiveAccountService.credit(accountNumber, amount)
+                .then(record(TransactionType.DEPOSIT, amount, accountNumber, null))
+                .as(this::transactional);
+    }
+
+    public Mono<Void> withdraw(String accountNumber, BigDecimal amount) {
+        return reactiveAccountService.debit(accountNumber, amount)
+                .then(record(TransactionType.WITHDRAWAL, amount, accountNumber, null))
+                .as(this::transactional);
+    }
+
+    public Mono<Void> transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        if (fromAccountNumber.equals(toAccountNumber)) {
+            return Mono.error(ApiError.SAME_ACCOUNT);
+        }
+        Mono<Void> debit = reactiveAccountService.debit(fromAccountNumber, amount);
+        Mono<Void> credit = reactiveAccountService.credit(toAccountNumber, amount);
+        // rows are locked in account number order, so opposite transfers cannot deadlock
+        return (fromAccountNumber.compareTo(toAccountNumber) < 0 ? debit.then(credit) : credit.then(debit))
+                .then(record(TransactionType.TRANSFER, amount, fromAccountNumber, toAccountNumber))
+                .as(this::transactional);
+    }
+
+    /**
+     * Applies every operation in its own transaction, a bounded number at a time, and reports
+     * the results in request order.
+     */
+    public Mono<List<BatchTransactionResult>> process(List<BatchTransactionDto> operations) {
+        return Flux.range(0, operations.size())
+                .flatMapSequential(index -> apply(operations.get(index))
+                        .thenReturn(new BatchTransactionResult(index, true, successMessage(operations.get(index).getType())))
+                        .onErrorResume(e -> Mono.just(new BatchTransactionResult(index, false, e.getMessage()))),
+                        BATCH_CONCURRENCY)
+                .collectList();
+    }
+
+    public Flux<TransactionView> getHistory(String accountNumber, Long beforeId, TransactionType type,
+                                            Instant from, Instant to, int limit) {
+        DatabaseClient.GenericExecuteSpec query = databaseClient.sql("""
+                        select t.id, cast(t.type as varchar) as type, t.amount, t.account_number, t.target_account_number, t.created_at
+                        from transaction t
+                        where (t.account_number = :accountNumber or t.target_account_number = :accountNumber)
+                          and t.id < :beforeId
+                          and (cast(:from as timestamp with time zone) is null or t.created_at >= :from)
+                          and (cast(:to as timestamp with time zone) is null or t.created_at < :to)
+                          and (cast(:type as varchar) is null or t.type = :type)
+                        order by t.id desc
+                        limit :limit""")
+                .bind("accountNumber", accountNumber)
+                .bind("beforeId", beforeId == null ? Long.MAX_VALUE : beforeId)
+                .bind("limit", limit);
+        query = type == null ? query.bindNull("type", String.class) : query.bind("type", type.name());
+        query = from == null ? query.bindNull("from", OffsetDateTime.class) : query.bind("from", from.atOffset(ZoneOffset.UTC));
+        query = to == null ? query.bindNull("to", OffsetDateTime.class) : query.bind("to", to.atOffset(ZoneOffset.UTC));
+        return query.map(ReactiveTransactionService::transactionView).all();
+    }
+
+    private Mono<Void> apply(BatchTransactionDto operation) {
+        if (operation.getType() == null) {
+            return Mono.error(ApiError.INVALID_TRANSACTION_TYPE);
+        }
+        if (!AccountBuckets.isAccountNumber(operation.getFromAccount())
+                || (operation.getType() == TransactionType.TRANSFER && !AccountBuckets.isAccountNumber(operation.getToAccount()))) {
+            return Mono.error(ApiError.INVALID_ACCOUNT_NUMBER);
+        }
+        if (operation.getAmount() == null || operation.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return Mono.error(ApiError.INVALID_AMOUNT);
+        }
+        return switch (operation.getType()) {
+            case DEPOSIT -> deposit(operation.getFromAccount(), operation.getAmount());
+            case WITHDRAWAL -> withdraw(operation.getFromAccount(), operation.getAmount());
+            case TRANSFER -> transfer(operation.getFromAccount(), operation.getToAccount(), operation.getAmount());
+        };
+    }
+
+    /**
+     * Runs the operation in its own transaction. A transaction that loses a row lock to a concurrent
+     * one, by deadlock or lock timeout, is retried a few times and then answered with a conflict.
+     */
+    private Mono<Void> transactional(Mono<Void> operation) {
+        return operation.as(reactiveTransactionalOperator::transactional)
+                .retryWhen(Retry.backoff(LOCK_RETRIES, LOCK_RETRY_BACKOFF)
+                        .filter(TransientDataAccessException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> ApiError.CONCURRENT_UPDATE));
+    }
+
+    private Mono<Void> record(TransactionType type, BigDecimal amount, String accountNumber, String targetAccountNumber) {
+        return reactiveIdAllocator.next("transaction_seq")
+                .flatMap(id -> {
+                    DatabaseClient.GenericExecuteSpec insert = databaseClient.sql("""
+                                    insert into transaction (id, type, amount, account_number, target_account_number, created_at, account_id)
+                                    select :id, :type, :amount, :accountNumber, :targetAccountNumber, :createdAt, a.id
+                                    from account a where a.account_number = :accountNumber""")
+                            .bind("id", id)
+                            .bind("type", type.name())
+                            .bind("amount", amount)
+                            .bind("accountNumber", accountNumber)
+                            .bind("createdAt", OffsetDateTime.now(ZoneOffset.UTC));
+                    insert = targetAccountNumber == null
+                            ? insert.bindNull("targetAccountNumber", String.class)
+                            : insert.bind("targetAccountNumber", targetAccountNumber);
+                    return insert.then();
+                });
+    }
+
+    private static TransactionView transactionView(Readable row) {
+        OffsetDateTime createdAt = row.get("created_at", OffsetDateTime.class);
+        return new TransactionView(
+                row.get("id", Long.class),
+                TransactionType.valueOf(row.get("type", String.class)),
+                row.get("amount", BigDecimal.class),
+                row.get("account_number", String.class),
+                row.get("target_account_number", String.class),
+                createdAt == null ? null : createdAt.toInstant());
+    }
+
+    private static String successMessage(TransactionType type) {
+        return switch (type) {
+            case DEPOSIT -> "Deposit successful";
+            case WITHDRAWAL -> "Withdrawal successful";
+            case TRANSFER -> "Transfer successful";
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.banking.transaction;
+
+import com.banking.TransactionType;
+import com.banking.error.ApiError;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/v1/accounts/{accountNumber}/transactions")
+@RequiredArgsConstructor
+public class AccountTransactionController {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final TransactionService transactionService;
+
+    @GetMapping
+    public ResponseEntity<List<TransactionView>> getHistory(@PathVariable String accountNumber,
+                                                            @RequestParam(required = false) Long before,
+                                                            @RequestParam(required = false) TransactionType type,
+                                                            @RequestParam(required = false) Instant from,
+                                                            @RequestParam(required = false) Instant to,
+                                                            @RequestParam(defaultValue = "50") int limit) {
+        if (StringUtils.isBlank(accountNumber)) {
+            throw ApiError.INVALID_ACCOUNT_NUMBER;
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw ApiError.INVALID_PAGE_SIZE;
+        }
+        List<TransactionView> transactions = transactionService.getHistory(accountNumber, before, type, from, to, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (transactions.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(transactions.get(transactions.size() - 1).id()));
+        }
+        return response.body(transactions);
+    }
+}
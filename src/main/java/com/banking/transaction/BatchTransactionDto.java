@@ -0,0 +1,18 @@
+package com.banking.transaction;
+
+import com.banking.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransactionDto {
+    private TransactionType type;
+    private String fromAccount;
+    private String toAccount;
+    private BigDecimal amount;
+}
@@ -0,0 +1,35 @@
+package com.banking.transaction;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@NoArgsConstructor
+public class BatchTransactionResult {
+    private int index;
+    private boolean success;
+    private String message;
+
+    /**
+     * Why the operation failed, e.g. the {@link com.banking.error.ApiError} it was rejected with;
+     * kept for callers that answer a single operation and never serialized.
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Throwable error;
+
+    public BatchTransactionResult(int index, boolean success, String message) {
+        this(index, success, message, null);
+    }
+
+    public BatchTransactionResult(int index, boolean success, String message, Throwable error) {
+        this.index = index;
+        this.success = success;
+        this.message = message;
+        this.error = error;
+    }
+}
@@ -2,22 +2,39 @@ package com.banking.transaction;
 
 import com.banking.TransactionType;
 import com.banking.account.Account;
+import com.banking.id.PooledSequenceGenerator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
 
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_transaction_account_number_id", columnList = "accountNumber, id"),
+        @Index(name = "idx_transaction_target_account_number_id", columnList = "targetAccountNumber, id")
+})
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "transaction_seq")
+    @GenericGenerator(name = "transaction_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "transaction_seq"))
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -26,6 +43,23 @@ public class Transaction {
     private String accountNumber;
     private String targetAccountNumber;
 
-    @ManyToOne
+    @CreationTimestamp
+    private Instant createdAt;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     private Account account;
+
+    /**
+     * Transactions are equal by id only; rows that are not persisted yet are only equal to themselves.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Transaction other && id != null && Objects.equals(id, other.id));
+    }
+
+    @Override
+    public int hashCode() {
+        return Transaction.class.hashCode();
+    }
 }
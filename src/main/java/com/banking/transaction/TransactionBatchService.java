@@ -0,0 +1,206 @@
+package com.banking.transaction;
+
+import com.banking.TransactionType;
+import com.banking.account.AccountBuckets;
+import com.banking.account.AccountService;
+import com.banking.balance.BalanceEngine;
+import com.banking.balance.TransferEngine;
+import com.banking.error.ApiError;
+import com.banking.journal.TransactionJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Service
+public class TransactionBatchService {
+
+    private final AccountService accountService;
+    private final BalanceEngine balanceEngine;
+    private final TransferEngine transferEngine;
+    private final TransactionRepository transactionRepository;
+    private final TransactionJournal transactionJournal;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxLockStripes;
+
+    public TransactionBatchService(AccountService accountService,
+                                   BalanceEngine balanceEngine,
+                                   TransferEngine transferEngine,
+                                   TransactionRepository transactionRepository,
+                                   TransactionJournal transactionJournal,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${banking.batch.chunk-size:500}") int chunkSize,
+                                   @Value("${banking.batch.max-lock-stripes:64}") int maxLockStripes) {
+        this.accountService = accountService;
+        this.balanceEngine = balanceEngine;
+        this.transferEngine = transferEngine;
+        this.transactionRepository = transactionRepository;
+        this.transactionJournal = transactionJournal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxLockStripes = maxLockStripes;
+    }
+
+    public List<BatchTransactionResult> process(List<BatchTransactionDto> operations) {
+        List<BatchTransactionResult> results = new ArrayList<>(operations.size());
+        for (int start = 0, end; start < operations.size(); start = end) {
+            end = chunkEnd(operations, start);
+            List<BatchTransactionDto> chunk = operations.subList(start, end);
+            int offset = start;
+            List<CompletableFuture<Void>> journaled = new ArrayList<>();
+            List<BatchTransactionResult> chunkResults;
+            try {
+                chunkResults = transactionTemplate.execute(status -> processChunk(chunk, offset, journaled));
+            } catch (RuntimeException e) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(new BatchTransactionResult(offset + i, false, "Chunk rolled back: " + e.getMessage(), e));
+                }
+                continue;
+            }
+            try {
+                CompletableFuture.allOf(journaled.toArray(CompletableFuture[]::new)).join();
+            } catch (CompletionException e) {
+                chunkResults = notDurable(chunkResults, e.getCause() == null ? e : e.getCause());
+            }
+            results.addAll(chunkResults);
+        }
+        return results;
+    }
+
+    /**
+     * End of the chunk starting at the given index. A chunk holds the lock stripes of all its accounts
+     * until it commits, so it is cut short once it would take more than {@code maxLockStripes} of them
+     * and a batch cannot block most single-account requests; a single operation always forms a chunk.
+     */
+    private int chunkEnd(List<BatchTransactionDto> operations, int start) {
+        int limit = Math.min(start + chunkSize, operations.size());
+        balanceEngine.preload(accountNumbersOf(operations.subList(start, limit)));
+        Set<Integer> stripes = new HashSet<>();
+        for (int end = start; end < limit; end++) {
+            stripes.addAll(balanceEngine.stripesOf(accountNumbersOf(List.of(operations.get(end)))));
+            if (stripes.size() > maxLockStripes && end > start) {
+                return end;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * The chunk committed but the journal could not make its operations durable; they are reported
+     * as failed with the journal's reason, operations that had already failed keep theirs.
+     */
+    private static List<BatchTransactionResult> notDurable(List<BatchTransactionResult> results, Throwable failure) {
+        return results.stream()
+                .map(result -> result.isSuccess()
+                        ? new BatchTransactionResult(result.getIndex(), false, "Not durable: " + failure.getMessage(), failure)
+                        : result)
+                .toList();
+    }
+
+    private List<BatchTransactionResult> processChunk(List<BatchTransactionDto> chunk, int offset,
+                                                      List<CompletableFuture<Void>> journaled) {
+        Set<String> accountNumbers = accountNumbersOf(chunk);
+        balanceEngine.preload(accountNumbers);
+        Set<String> lockKeys = balanceEngine.lockKeysOf(accountNumbers);
+        return balanceEngine.locked(lockKeys, () -> {
+            balanceEngine.preload(lockKeys);
+
+            List<BatchTransactionResult> results = new ArrayList<>(chunk.size());
+            List<Transaction> transactions = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                BatchTransactionDto operation = chunk.get(i);
+                try {
+                    balanceEngine.atomically(() -> {
+                        Transaction transaction = apply(operation);
+                        if (transactionJournal.isEnabled()) {
+                            journaled.add(transactionJournal.append(transaction, balanceEngine.takeChanges()));
+                        } else {
+                            transactions.add(transaction);
+                        }
+                        return transaction;
+                    });
+                    results.add(new BatchTransactionResult(offset + i, true, successMessage(operation.getType())));
+                } catch (RuntimeException e) {
+                    results.add(new BatchTransactionResult(offset + i, false, e.getMessage(), e));
+                }
+            }
+            if (!transactionJournal.isEnabled()) {
+                transactionRepository.saveAll(transactions);
+            }
+            return results;
+        });
+    }
+
+    private static Set<String> accountNumbersOf(List<BatchTransactionDto> operations) {
+        Set<String> accountNumbers = new LinkedHashSet<>();
+        for (BatchTransactionDto operation : operations) {
+            if (AccountBuckets.isAccountNumber(operation.getFromAccount())) {
+                accountNumbers.add(operation.getFromAccount());
+            }
+            if (operation.getType() == TransactionType.TRANSFER && AccountBuckets.isAccountNumber(operation.getToAccount())) {
+                accountNumbers.add(operation.getToAccount());
+            }
+        }
+        return accountNumbers;
+    }
+
+    private Transaction apply(BatchTransactionDto operation) {
+        validate(operation);
+        String accountNumber = operation.getFromAccount();
+        BigDecimal amount = operation.getAmount();
+
+        return switch (operation.getType()) {
+            case DEPOSIT -> transaction(TransactionType.DEPOSIT, amount, accountNumber, null,
+                    balanceEngine.credit(accountNumber, amount));
+            case WITHDRAWAL -> transaction(TransactionType.WITHDRAWAL, amount, accountNumber, null,
+                    balanceEngine.debit(accountNumber, amount));
+            case TRANSFER -> {
+                Long sourceId = transferEngine.transfer(accountNumber, operation.getToAccount(), amount);
+                yield transaction(TransactionType.TRANSFER, amount, accountNumber, operation.getToAccount(), sourceId);
+            }
+        };
+    }
+
+    private static void validate(BatchTransactionDto operation) {
+        if (operation.getType() == null) {
+            throw ApiError.INVALID_TRANSACTION_TYPE;
+        }
+        if (!AccountBuckets.isAccountNumber(operation.getFromAccount())
+                || (operation.getType() == TransactionType.TRANSFER && !AccountBuckets.isAccountNumber(operation.getToAccount()))) {
+            throw ApiError.INVALID_ACCOUNT_NUMBER;
+        }
+        if (operation.getAmount() == null || operation.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw ApiError.INVALID_AMOUNT;
+        }
+    }
+
+    private Transaction transaction(TransactionType type, BigDecimal amount, String accountNumber,
+                                    String targetAccountNumber, Long accountId) {
+        return Transaction
+                .builder()
+                .type(type)
+                .amount(amount)
+                .accountNumber(accountNumber)
+                .targetAccountNumber(targetAccountNumber)
+                .account(accountService.getReference(accountId))
+                .build();
+    }
+
+    private static String successMessage(TransactionType type) {
+        return switch (type) {
+            case DEPOSIT -> "Deposit successful";
+            case WITHDRAWAL -> "Withdrawal successful";
+            case TRANSFER -> "Transfer successful";
+        };
+    }
+}
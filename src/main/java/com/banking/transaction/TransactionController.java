@@ -1,64 +1,140 @@
 package com.banking.transaction;
 
+import com.banking.account.AccountBuckets;
+import com.banking.error.ApiError;
+import com.banking.idempotency.IdempotencyStore;
+import com.banking.ratelimit.AdmissionControl;
+import com.banking.ratelimit.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.StringUtils;
-import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/transactions")
 @RequiredArgsConstructor
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionBatchService transactionBatchService;
+    private final TransferPipeline transferPipeline;
+    private final IdempotencyStore idempotencyStore;
+    private final RateLimiter rateLimiter;
+    private final AdmissionControl admissionControl;
 
-    @PostMapping("/deposit")
-    public ResponseEntity<String> deposit(@RequestBody TransactionDto transactionDto) {
-        if (StringUtils.isNotBlank(transactionDto.getFromAccount())) {
-            if (!transactionDto.getAmount().equals(BigDecimal.ZERO)
-                    && transactionDto.getAmount().compareTo(BigDecimal.ZERO) > 0) {
+    @Value("${banking.batch.max-operations:10000}")
+    private int maxBatchOperations;
 
-                transactionService.deposit(transactionDto.getFromAccount(), transactionDto.getAmount());
-                return ResponseEntity.ok("Deposit successful");
-            }
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid deposit amount");
-        }
-        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid account number");
+    @Value("${banking.transaction.ack-timeout-ms:5000}")
+    private long ackTimeoutMs;
+
+    @PostMapping("/deposit")
+    public ResponseEntity<String> deposit(@RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                          @RequestBody TransactionDto transactionDto, HttpServletRequest request) {
+        validate(transactionDto.getFromAccount(), transactionDto.getAmount());
+        admit(request, transactionDto.getFromAccount());
+        return idempotencyStore.execute(idempotencyKey, fingerprint("deposit", transactionDto), () ->
+                acknowledge(transactionService.deposit(transactionDto.getFromAccount(), transactionDto.getAmount()), "Deposit"));
     }
 
     @PostMapping("/withdraw")
-    public ResponseEntity<String> withdraw(@RequestBody TransactionDto transactionDto) {
-        if (StringUtils.isNotBlank(transactionDto.getFromAccount())) {
-            if (!transactionDto.getAmount().equals(BigDecimal.ZERO)
-                    && transactionDto.getAmount().compareTo(BigDecimal.ZERO) > 0) {
-
-                transactionService.withdraw(transactionDto.getFromAccount(), transactionDto.getAmount());
-                return ResponseEntity.ok("Withdrawal successful");
-            }
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid deposit amount");
-        }
-        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid account number");
+    public ResponseEntity<String> withdraw(@RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                           @RequestBody TransactionDto transactionDto, HttpServletRequest request) {
+        validate(transactionDto.getFromAccount(), transactionDto.getAmount());
+        admit(request, transactionDto.getFromAccount());
+        return idempotencyStore.execute(idempotencyKey, fingerprint("withdraw", transactionDto), () ->
+                acknowledge(transactionService.withdraw(transactionDto.getFromAccount(), transactionDto.getAmount()), "Withdrawal"));
     }
 
     @PostMapping("/transfer")
-    public ResponseEntity<String> transfer(@RequestBody TransactionDto transactionDto) {
-        if (StringUtils.isNotBlank(transactionDto.getFromAccount())
-                && StringUtils.isNotBlank(transactionDto.getToAccount())) {
-            if (!transactionDto.getAmount().equals(BigDecimal.ZERO)
-                    && transactionDto.getAmount().compareTo(BigDecimal.ZERO) > 0) {
-
-                transactionService.transfer(transactionDto.getFromAccount(), transactionDto.getToAccount(), transactionDto.getAmount());
+    public ResponseEntity<String> transfer(@RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                           @RequestBody TransactionDto transactionDto, HttpServletRequest request) {
+        if (!AccountBuckets.isAccountNumber(transactionDto.getFromAccount())
+                || !AccountBuckets.isAccountNumber(transactionDto.getToAccount())) {
+            throw ApiError.INVALID_TRANSFER_PARAMS;
+        }
+        validate(transactionDto.getFromAccount(), transactionDto.getAmount());
+        admit(request, transactionDto.getFromAccount());
+        return idempotencyStore.execute(idempotencyKey, fingerprint("transfer", transactionDto), () -> {
+            if (transferPipeline.isEnabled()) {
+                // the pipeline future also carries the outcome of the transfer itself
+                transferPipeline.submit(transactionDto.getFromAccount(), transactionDto.getToAccount(), transactionDto.getAmount()).join();
                 return ResponseEntity.ok("Transfer successful");
             }
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid deposit amount");
+            return acknowledge(transactionService.transfer(transactionDto.getFromAccount(), transactionDto.getToAccount(),
+                    transactionDto.getAmount()), "Transfer");
+        });
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchTransactionResult>> batch(@RequestBody List<BatchTransactionDto> operations,
+                                                              HttpServletRequest request) {
+        if (operations == null || operations.isEmpty()) {
+            throw ApiError.EMPTY_BATCH;
         }
-        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid transfer params");
+        if (operations.size() > maxBatchOperations) {
+            throw ApiError.BATCH_TOO_LARGE;
+        }
+        admissionControl.admit();
+        // every operation counts against the client and the account it debits or credits first
+        rateLimiter.acquire(request, operations.size(), operations.stream()
+                .map(BatchTransactionDto::getFromAccount)
+                .filter(AccountBuckets::isAccountNumber)
+                .toList());
+        return ResponseEntity.ok(transactionBatchService.process(operations));
+    }
+
+    /**
+     * Rejects the request before anything is allocated for it, with a preallocated stackless error.
+     */
+    private static void validate(String accountNumber, BigDecimal amount) {
+        if (!AccountBuckets.isAccountNumber(accountNumber)) {
+            throw ApiError.INVALID_ACCOUNT_NUMBER;
+        }
+        if (amount == null || amount.signum() <= 0) {
+            throw ApiError.INVALID_AMOUNT;
+        }
+    }
+
+    /**
+     * Applies the rate limits and sheds load while the connection pool is saturated, before the
+     * request waits for a lock or a connection.
+     */
+    private void admit(HttpServletRequest request, String accountNumber) {
+        admissionControl.admit();
+        rateLimiter.acquire(request, accountNumber);
+    }
+
+    /**
+     * Waits up to the ack timeout for an applied operation to become durable: 200 once it is, 202
+     * while it is still pending. A slow journal or log never reports an applied operation as failed,
+     * so a retry with the same idempotency key gets the stored 202 instead of posting it again.
+     */
+    private ResponseEntity<String> acknowledge(CompletableFuture<Void> durable, String operation) {
+        boolean done = durable.thenApply(ignored -> true)
+                .completeOnTimeout(false, ackTimeoutMs, TimeUnit.MILLISECONDS)
+                .join();
+        return done ? ResponseEntity.ok(operation + " successful") : ResponseEntity.accepted().body(operation + " accepted");
+    }
+
+    /**
+     * Identifies the request an idempotency key was used for. The amount is compared by value, so a
+     * retry sending {@code 10} for {@code 10.00} counts as the same request.
+     */
+    private static String fingerprint(String operation, TransactionDto transactionDto) {
+        return String.join("|", operation, String.valueOf(transactionDto.getFromAccount()),
+                String.valueOf(transactionDto.getToAccount()), transactionDto.getAmount().stripTrailingZeros().toPlainString());
     }
 }
@@ -0,0 +1,337 @@
+package com.banking.transaction;
+
+import com.banking.error.ApiError;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes transaction rows off the request path. A slot in the bounded queue is reserved when the
+ * balance transaction starts, before any account lock is taken, so a full queue fails the operation
+ * instead of losing its row and waiting for space never holds up other requests on the same
+ * accounts; the row is queued once the balance update has committed and a single writer thread
+ * inserts the queued rows in batches.
+ * <p>
+ * A batch that still fails after {@code max-attempts} is split in halves until the failing row is
+ * isolated. While the database is reachable that row is appended to the dead-letter file, logged
+ * and its slot released, so it cannot hold up the rows behind it.
+ */
+@Slf4j
+@Component
+public class TransactionLog implements InitializingBean, DisposableBean {
+
+    public enum Backpressure {
+        /**
+         * Wait up to the offer timeout for a free slot.
+         */
+        BLOCK,
+        /**
+         * Fail at once when the queue is full.
+         */
+        REJECT
+    }
+
+    public enum Durability {
+        /**
+         * Acknowledge once the row is queued; queued rows are lost if the process dies.
+         */
+        ACCEPTED,
+        /**
+         * Acknowledge once the batch holding the row has been inserted; the controller answers 202
+         * if that takes longer than its ack timeout.
+         */
+        WRITTEN
+    }
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Backpressure backpressure;
+    private final Durability durability;
+    private final long offerTimeoutMs;
+    private final int maxBatch;
+    private final long retryDelayMs;
+    private final int maxAttempts;
+    private final Path deadLetterPath;
+    private final BlockingQueue<PendingRow> queue;
+    private final Semaphore slots;
+    private final DistributionSummary batchSizes;
+    private final Object reservationKey = new Object();
+
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public TransactionLog(TransactionRepository transactionRepository,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${banking.transaction.log.enabled:false}") boolean enabled,
+                          @Value("${banking.transaction.log.backpressure:BLOCK}") Backpressure backpressure,
+                          @Value("${banking.transaction.log.durability:WRITTEN}") Durability durability,
+                          @Value("${banking.transaction.log.offer-timeout-ms:1000}") long offerTimeoutMs,
+                          @Value("${banking.transaction.log.queue-capacity:65536}") int queueCapacity,
+                          @Value("${banking.transaction.log.max-batch:500}") int maxBatch,
+                          @Value("${banking.transaction.log.retry-delay-ms:1000}") long retryDelayMs,
+                          @Value("${banking.transaction.log.max-attempts:5}") int maxAttempts,
+                          @Value("${banking.transaction.log.dead-letter-path:data/transactions.log.dead}") Path deadLetterPath) {
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.backpressure = backpressure;
+        this.durability = durability;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxBatch = maxBatch;
+        this.retryDelayMs = retryDelayMs;
+        this.maxAttempts = maxAttempts;
+        this.deadLetterPath = deadLetterPath;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.slots = new Semaphore(queueCapacity);
+        this.batchSizes = meterRegistry.summary("banking.transaction.log.batch.size");
+        meterRegistry.gauge("banking.transaction.log.queued", queue, BlockingQueue::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserves a slot for a row the surrounding transaction is going to {@link #append}. Meant to be
+     * called before the transaction locks any account; a reservation the transaction has not used
+     * when it completes, e.g. because it rolled back, is released. Outside a transaction the slot is
+     * only taken by {@code append}.
+     */
+    public void reserve() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Reservation reservation = (Reservation) TransactionSynchronizationManager.getResource(reservationKey);
+        if (reservation == null) {
+            reservation = new Reservation();
+            TransactionSynchronizationManager.bindResource(reservationKey, reservation);
+            TransactionSynchronizationManager.registerSynchronization(reservation);
+        }
+        acquireSlot();
+        reservation.unused++;
+    }
+
+    /**
+     * Takes a slot reserved by {@link #reserve}, or reserves one, and queues the row after the
+     * surrounding transaction commits. The returned future completes when the row is queued or
+     * written, depending on the durability.
+     */
+    public CompletableFuture<Void> append(Transaction transaction) {
+        if (!takeReservation()) {
+            acquireSlot();
+        }
+        PendingRow row = new PendingRow(transaction, new CompletableFuture<>());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        queue.add(row);
+                    } else {
+                        slots.release();
+                        row.written().cancel(false);
+                    }
+                }
+            });
+        } else {
+            queue.add(row);
+        }
+        return durability == Durability.ACCEPTED ? CompletableFuture.completedFuture(null) : row.written();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::writeLoop, "transaction-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Stops accepting rows and waits for the writer to insert what is already queued.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    void write(List<PendingRow> batch) {
+        transactionTemplate.executeWithoutResult(status ->
+                transactionRepository.saveAll(batch.stream().map(PendingRow::transaction).toList()));
+        slots.release(batch.size());
+        batchSizes.record(batch.size());
+        batch.forEach(row -> row.written().complete(null));
+    }
+
+    private boolean takeReservation() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        Reservation reservation = (Reservation) TransactionSynchronizationManager.getResource(reservationKey);
+        if (reservation == null || reservation.unused == 0) {
+            return false;
+        }
+        reservation.unused--;
+        return true;
+    }
+
+    private void acquireSlot() {
+        if (!running) {
+            throw new IllegalStateException("Transaction log is not running");
+        }
+        boolean reserved;
+        try {
+            reserved = backpressure == Backpressure.BLOCK
+                    ? slots.tryAcquire(offerTimeoutMs, TimeUnit.MILLISECONDS)
+                    : slots.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for transaction log space", e);
+        }
+        if (!reserved) {
+            throw ApiError.TRANSACTION_LOG_FULL;
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingRow> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingRow first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                writeIsolating(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeIsolating(List<PendingRow> rows) throws InterruptedException {
+        RuntimeException failure = writeWithRetries(rows);
+        if (failure == null) {
+            return;
+        }
+        if (rows.size() > 1) {
+            int half = rows.size() / 2;
+            writeIsolating(rows.subList(0, half));
+            writeIsolating(rows.subList(half, rows.size()));
+            return;
+        }
+        // keep retrying while the database is down rather than dead-lettering every row
+        while (running && !databaseReachable()) {
+            Thread.sleep(retryDelayMs);
+            failure = writeWithRetries(rows);
+            if (failure == null) {
+                return;
+            }
+        }
+        deadLetter(rows.get(0), failure);
+    }
+
+    private RuntimeException writeWithRetries(List<PendingRow> rows) throws InterruptedException {
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                write(rows);
+                return null;
+            } catch (RuntimeException e) {
+                failure = e;
+                log.warn("Writing {} transaction rows failed, attempt {} of {}", rows.size(), attempt, maxAttempts, e);
+                if (attempt < maxAttempts) {
+                    Thread.sleep(retryDelayMs);
+                }
+            }
+        }
+        return failure;
+    }
+
+    private boolean databaseReachable() {
+        try {
+            transactionRepository.existsById(0L);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Appends the row to the dead-letter file for manual repair and releases its slot. Its balance
+     * change has committed, so the row counts as written once the file holds it.
+     */
+    private void deadLetter(PendingRow row, RuntimeException failure) {
+        Transaction transaction = row.transaction();
+        String line = String.join(",", String.valueOf(transaction.getType()), String.valueOf(transaction.getAmount()),
+                transaction.getAccountNumber(), String.valueOf(transaction.getTargetAccountNumber()));
+        slots.release();
+        try {
+            if (deadLetterPath.getParent() != null) {
+                Files.createDirectories(deadLetterPath.getParent());
+            }
+            Files.writeString(deadLetterPath, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+            log.error("Lost transaction row {}, it could not be dead-lettered", line, failure);
+            row.written().completeExceptionally(failure);
+            return;
+        }
+        log.error("Dead-lettered transaction row {} to {}", line, deadLetterPath, failure);
+        row.written().complete(null);
+    }
+
+    record PendingRow(Transaction transaction, CompletableFuture<Void> written) {
+    }
+
+    /**
+     * Slots reserved by the current transaction and not yet taken by a row.
+     */
+    private final class Reservation implements TransactionSynchronization {
+
+        private int unused;
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(reservationKey);
+            if (unused > 0) {
+                slots.release(unused);
+            }
+        }
+    }
+}
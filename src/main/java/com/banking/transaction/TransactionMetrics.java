@@ -0,0 +1,76 @@
+package com.banking.transaction;
+
+import com.banking.error.ApiError;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of deposits, withdrawals and transfers, tagged with the operation and its outcome, so
+ * the timer counts double as outcome counters. Timers are registered once per operation and
+ * outcome and then looked up without building a meter id.
+ */
+@Component
+public class TransactionMetrics {
+
+    static final String TIMER = "banking.transactions";
+
+    enum Outcome {
+        SUCCESS, INSUFFICIENT_FUNDS, NOT_FOUND, CONFLICT, REJECTED, ERROR;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public TransactionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String operation, long startNanos, Throwable failure) {
+        timer(operation, outcomeOf(failure)).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String operation, Outcome outcome) {
+        Timer[] byOutcome = timers.computeIfAbsent(operation, ignored -> new Timer[Outcome.values().length]);
+        Timer timer = byOutcome[outcome.ordinal()];
+        if (timer == null) {
+            // a racing registration returns the same meter from the registry
+            timer = Timer.builder(TIMER)
+                    .description("Latency of balance operations until they are durable")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome.tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            byOutcome[outcome.ordinal()] = timer;
+        }
+        return timer;
+    }
+
+    static Outcome outcomeOf(Throwable failure) {
+        if (failure == null) {
+            return Outcome.SUCCESS;
+        }
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause == ApiError.INSUFFICIENT_FUNDS) {
+            return Outcome.INSUFFICIENT_FUNDS;
+        }
+        if (cause == ApiError.ACCOUNT_NOT_FOUND) {
+            return Outcome.NOT_FOUND;
+        }
+        if (cause instanceof OptimisticLockingFailureException) {
+            return Outcome.CONFLICT;
+        }
+        if (cause instanceof ApiError || cause instanceof IllegalArgumentException) {
+            return Outcome.REJECTED;
+        }
+        return Outcome.ERROR;
+    }
+}
@@ -0,0 +1,40 @@
+package com.banking.transaction;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Times the balance operations of {@link TransactionService} from the call until the returned
+ * future completes, around the optimistic retries so a retried operation is timed once.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class TransactionMetricsAspect {
+
+    private final TransactionMetrics transactionMetrics;
+
+    public TransactionMetricsAspect(TransactionMetrics transactionMetrics) {
+        this.transactionMetrics = transactionMetrics;
+    }
+
+    @Around("execution(public java.util.concurrent.CompletableFuture com.banking.transaction.TransactionService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        CompletableFuture<?> result;
+        try {
+            result = (CompletableFuture<?>) joinPoint.proceed();
+        } catch (Throwable e) {
+            transactionMetrics.record(operation, start, e);
+            throw e;
+        }
+        return result.whenComplete((ignored, failure) -> transactionMetrics.record(operation, start, failure));
+    }
+}
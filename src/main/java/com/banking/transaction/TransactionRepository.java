@@ -1,8 +1,47 @@
 package com.banking.transaction;
 
+import com.banking.TransactionType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+
+    @Query("""
+            select new com.banking.transaction.TransactionView(t.id, t.type, t.amount, t.accountNumber,
+                t.targetAccountNumber, t.createdAt)
+            from Transaction t
+            where t.accountNumber = :accountNumber and t.id < :beforeId
+              and (:type is null or t.type = :type)
+              and (:from is null or t.createdAt >= :from)
+              and (:to is null or t.createdAt < :to)
+            order by t.id desc""")
+    List<TransactionView> findHistory(@Param("accountNumber") String accountNumber,
+                                      @Param("beforeId") Long beforeId,
+                                      @Param("type") TransactionType type,
+                                      @Param("from") Instant from,
+                                      @Param("to") Instant to,
+                                      Limit limit);
+
+    @Query("""
+            select new com.banking.transaction.TransactionView(t.id, t.type, t.amount, t.accountNumber,
+                t.targetAccountNumber, t.createdAt)
+            from Transaction t
+            where t.targetAccountNumber = :accountNumber and t.id < :beforeId
+              and (:type is null or t.type = :type)
+              and (:from is null or t.createdAt >= :from)
+              and (:to is null or t.createdAt < :to)
+            order by t.id desc""")
+    List<TransactionView> findIncomingHistory(@Param("accountNumber") String accountNumber,
+                                              @Param("beforeId") Long beforeId,
+                                              @Param("type") TransactionType type,
+                                              @Param("from") Instant from,
+                                              @Param("to") Instant to,
+                                              Limit limit);
 }
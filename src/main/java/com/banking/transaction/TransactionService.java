@@ -1,71 +1,121 @@
 package com.banking.transaction;
 
 import com.banking.TransactionType;
-import com.banking.account.Account;
 import com.banking.account.AccountService;
+import com.banking.balance.BalanceEngine;
+import com.banking.balance.OptimisticRetry;
+import com.banking.balance.TransferEngine;
+import com.banking.journal.TransactionJournal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
 
-    private final AccountService accountService;
     private final TransactionRepository transactionRepository;
+    private final AccountService accountService;
+    private final BalanceEngine balanceEngine;
+    private final TransferEngine transferEngine;
+    private final TransactionJournal transactionJournal;
+    private final TransactionLog transactionLog;
 
+    @OptimisticRetry
     @Transactional
-    public void deposit(String accountNumber, BigDecimal amount) {
-        Account account = accountService.getAccount(accountNumber);
-        account.setBalance(account.getBalance().add(amount));
-
-        Account updatedAccount = accountService.updateAccount(account);
+    public CompletableFuture<Void> deposit(String accountNumber, BigDecimal amount) {
+        reserveLogSlot();
+        Long accountId = balanceEngine.credit(accountNumber, amount);
 
-        transactionRepository.save(Transaction
+        return record(Transaction
                 .builder()
                 .type(TransactionType.DEPOSIT)
                 .amount(amount)
                 .accountNumber(accountNumber)
-                .account(updatedAccount)
+                .account(accountService.getReference(accountId))
                 .build()
         );
     }
 
+    @OptimisticRetry
     @Transactional
-    public void withdraw(String accountNumber, BigDecimal amount) {
-        Account account = accountService.getAccount(accountNumber);
-        if (account.getBalance().compareTo(amount) >= 0) {
-            account.setBalance(account.getBalance().subtract(amount));
-            Account updatedAccount = accountService.updateAccount(account);
+    public CompletableFuture<Void> withdraw(String accountNumber, BigDecimal amount) {
+        reserveLogSlot();
+        Long accountId = balanceEngine.debit(accountNumber, amount);
 
-            transactionRepository.save(Transaction
-                    .builder()
-                    .type(TransactionType.WITHDRAWAL)
-                    .amount(amount)
-                    .accountNumber(accountNumber)
-                    .account(updatedAccount)
-                    .build()
-            );
-        } else {
-            throw new IllegalArgumentException("Insufficient funds");
-        }
+        return record(Transaction
+                .builder()
+                .type(TransactionType.WITHDRAWAL)
+                .amount(amount)
+                .accountNumber(accountNumber)
+                .account(accountService.getReference(accountId))
+                .build()
+        );
     }
 
+    @OptimisticRetry
     @Transactional
-    public void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
-        withdraw(fromAccountNumber, amount);
-        deposit(toAccountNumber, amount);
+    public CompletableFuture<Void> transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        reserveLogSlot();
+        Long sourceId = transferEngine.transfer(fromAccountNumber, toAccountNumber, amount);
 
-        transactionRepository.save(Transaction
+        return record(Transaction
                 .builder()
-                .type(TransactionType.WITHDRAWAL)
+                .type(TransactionType.TRANSFER)
                 .amount(amount)
                 .accountNumber(fromAccountNumber)
                 .targetAccountNumber(toAccountNumber)
-                .account(accountService.getAccount(fromAccountNumber))
+                .account(accountService.getReference(sourceId))
                 .build()
         );
     }
+
+    /**
+     * Reserves the transaction log slot before the account locks are taken, so waiting for log
+     * space never blocks other requests on the same accounts.
+     */
+    private void reserveLogSlot() {
+        if (!transactionJournal.isEnabled() && transactionLog.isEnabled()) {
+            transactionLog.reserve();
+        }
+    }
+
+    /**
+     * Persists the transaction row, journals it when the journal is enabled or hands it to the
+     * asynchronous transaction log. The returned future completes once the operation is durable
+     * and is meant to be awaited after the transaction has released the account locks.
+     */
+    private CompletableFuture<Void> record(Transaction transaction) {
+        if (transactionJournal.isEnabled()) {
+            return transactionJournal.append(transaction, balanceEngine.takeChanges());
+        }
+        if (transactionLog.isEnabled()) {
+            return transactionLog.append(transaction);
+        }
+        transactionRepository.save(transaction);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public List<TransactionView> getHistory(String accountNumber, Long beforeId, TransactionType type,
+                                            Instant from, Instant to, int limit) {
+        Long before = beforeId == null ? Long.MAX_VALUE : beforeId;
+
+        List<TransactionView> outgoing = transactionRepository.findHistory(accountNumber, before, type, from, to, Limit.of(limit));
+        List<TransactionView> incoming = transactionRepository.findIncomingHistory(accountNumber, before, type, from, to, Limit.of(limit));
+        if (incoming.isEmpty()) {
+            return outgoing;
+        }
+        return Stream.concat(outgoing.stream(), incoming.stream())
+                .sorted(Comparator.comparing(TransactionView::id).reversed())
+                .limit(limit)
+                .toList();
+    }
 }
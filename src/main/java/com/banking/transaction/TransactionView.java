@@ -0,0 +1,14 @@
+package com.banking.transaction;
+
+import com.banking.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Read model of a transaction for the history API, selected directly by the history queries so no
+ * entity or account is loaded.
+ */
+public record TransactionView(Long id, TransactionType type, BigDecimal amount, String accountNumber,
+                              String targetAccountNumber, Instant createdAt) {
+}
@@ -0,0 +1,169 @@
+package com.banking.transaction;
+
+import com.banking.TransactionType;
+import com.banking.error.ApiError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for transfers. Concurrent requests are queued and collected by worker threads over a
+ * short window or up to a maximum batch size, then applied through {@link TransactionBatchService}
+ * in one database transaction. A failing transfer, e.g. for insufficient funds, only fails its own
+ * future.
+ */
+@Component
+public class TransferPipeline implements InitializingBean, DisposableBean {
+
+    private final TransactionBatchService transactionBatchService;
+    private final TransactionMetrics transactionMetrics;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final int workers;
+    private final BlockingQueue<PendingTransfer> queue;
+    private final Counter commits;
+    private final DistributionSummary batchSizes;
+
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    public TransferPipeline(TransactionBatchService transactionBatchService,
+                            TransactionMetrics transactionMetrics,
+                            MeterRegistry meterRegistry,
+                            @Value("${banking.transfer.pipeline.enabled:false}") boolean enabled,
+                            @Value("${banking.transfer.pipeline.window-us:1000}") long windowMicros,
+                            @Value("${banking.transfer.pipeline.max-batch:128}") int maxBatch,
+                            @Value("${banking.transfer.pipeline.workers:4}") int workers,
+                            @Value("${banking.transfer.pipeline.queue-capacity:10000}") int queueCapacity) {
+        this.transactionBatchService = transactionBatchService;
+        this.transactionMetrics = transactionMetrics;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatch = maxBatch;
+        this.workers = workers;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.commits = meterRegistry.counter("banking.transfer.pipeline.commits");
+        this.batchSizes = meterRegistry.summary("banking.transfer.pipeline.batch.size");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the transfer and returns a future that completes once its batch has committed, or
+     * fails with the error the transfer was rejected with. A full or stopped pipeline fails it with
+     * {@link ApiError#OVERLOADED}.
+     */
+    public CompletableFuture<Void> submit(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        long start = System.nanoTime();
+        PendingTransfer transfer = new PendingTransfer(
+                new BatchTransactionDto(TransactionType.TRANSFER, fromAccountNumber, toAccountNumber, amount),
+                new CompletableFuture<>());
+        if (!running) {
+            transfer.result().completeExceptionally(ApiError.OVERLOADED);
+        } else if (!queue.offer(transfer)) {
+            transfer.result().completeExceptionally(ApiError.OVERLOADED);
+        }
+        return transfer.result()
+                .whenComplete((ignored, failure) -> transactionMetrics.record("transfer", start, failure));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(this::workLoop, "transfer-pipeline-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workerThreads.add(worker);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Thread worker : workerThreads) {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        List<PendingTransfer> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(transfer -> transfer.result().completeExceptionally(ApiError.OVERLOADED));
+    }
+
+    void apply(List<PendingTransfer> batch) {
+        List<BatchTransactionResult> results;
+        try {
+            results = transactionBatchService.process(batch.stream().map(PendingTransfer::operation).toList());
+        } catch (RuntimeException e) {
+            batch.forEach(transfer -> transfer.result().completeExceptionally(e));
+            return;
+        }
+        commits.increment();
+        batchSizes.record(batch.size());
+        for (BatchTransactionResult result : results) {
+            CompletableFuture<Void> future = batch.get(result.getIndex()).result();
+            if (result.isSuccess()) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(result.getError() != null
+                        ? result.getError()
+                        : new IllegalStateException(result.getMessage()));
+            }
+        }
+    }
+
+    private void workLoop() {
+        List<PendingTransfer> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                PendingTransfer first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingTransfer next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                apply(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(transfer -> transfer.result().completeExceptionally(e));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    record PendingTransfer(BatchTransactionDto operation, CompletableFuture<Void> result) {
+    }
+}
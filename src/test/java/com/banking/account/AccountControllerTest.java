@@ -1,29 +1,40 @@
 package com.banking.account;
 
+import com.banking.balance.HotAccountBuckets;
+import com.banking.error.ApiError;
+import com.banking.error.ApiErrorHandler;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(MockitoExtension.class)
 class AccountControllerTest {
@@ -33,14 +44,24 @@ class AccountControllerTest {
     @Mock
     private AccountService accountServiceMock;
 
+    @Mock
+    private HotAccountBuckets hotAccountBucketsMock;
+
+    @Mock
+    private BalanceExporter balanceExporterMock;
+
+    @Mock
+    private AccountImporter accountImporterMock;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private AccountController accountControllerMock;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(accountControllerMock).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(accountControllerMock).setControllerAdvice(new ApiErrorHandler()).build();
     }
 
     @Test
@@ -96,10 +117,7 @@ class AccountControllerTest {
     @Test
     void testGetAccountInfo_WhenAccountExists_ShouldReturnAccount() throws Exception {
         // given
-        Account account = Account.builder()
-                .accountNumber("123456")
-                .balance(BigDecimal.valueOf(1000))
-                .build();
+        AccountView account = new AccountView(1L, "123456", BigDecimal.valueOf(1000), null);
 
         when(accountServiceMock.getAccountInfo("123456")).thenReturn(account);
 
@@ -124,16 +142,14 @@ class AccountControllerTest {
     }
 
     @Test
-    void testGetAccountInfo_WhenAccountDoesNotExist_ShouldThrowException() {
+    void testGetAccountInfo_WhenAccountDoesNotExist_ShouldReturnNotFound() throws Exception {
         // given
-        when(accountServiceMock.getAccountInfo("123456")).thenThrow(new RuntimeException("Account not found"));
+        when(accountServiceMock.getAccountInfo("123456")).thenThrow(ApiError.ACCOUNT_NOT_FOUND);
 
         // then
-        assertThrows(ServletException.class, () ->
-                mockMvc.perform(get("/api/v1/accounts/123456")
-                                .contentType(MediaType.APPLICATION_JSON))
-                        .andExpect(status().isNotFound())
-        );
+        mockMvc.perform(get("/api/v1/accounts/123456")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
 
         verify(accountServiceMock, times(1)).getAccountInfo("123456");
     }
@@ -141,21 +157,133 @@ class AccountControllerTest {
     @Test
     void testGetAllAccounts_ShouldReturnListOfAccounts() throws Exception {
         // given
-        List<Account> accounts = Arrays.asList(
-                Account.builder().accountNumber("123456").balance(BigDecimal.valueOf(1000)).build(),
-                Account.builder().accountNumber("654321").balance(BigDecimal.valueOf(2000)).build()
+        List<AccountView> accounts = Arrays.asList(
+                new AccountView(1L, "123456", BigDecimal.valueOf(1000), null),
+                new AccountView(2L, "654321", BigDecimal.valueOf(2000), null)
         );
 
-        when(accountServiceMock.getAllAccounts()).thenReturn(accounts);
+        when(accountServiceMock.getAccountsPage(null, 100)).thenReturn(accounts);
 
         // when & then
         mockMvc.perform(get("/api/v1/accounts")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(AccountController.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].accountNumber").value("123456"))
                 .andExpect(jsonPath("$[1].accountNumber").value("654321"));
 
-        verify(accountServiceMock, times(1)).getAllAccounts();
+        verify(accountServiceMock, times(1)).getAccountsPage(null, 100);
+    }
+
+    @Test
+    void testGetAllAccounts_WhenPageIsFull_ShouldReturnNextCursor() throws Exception {
+        // given
+        List<AccountView> accounts = Arrays.asList(
+                new AccountView(11L, "123456", BigDecimal.valueOf(1000), null),
+                new AccountView(12L, "654321", BigDecimal.valueOf(2000), null)
+        );
+
+        when(accountServiceMock.getAccountsPage(10L, 2)).thenReturn(accounts);
+
+        // when & then
+        mockMvc.perform(get("/api/v1/accounts?after=10&limit=2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(AccountController.NEXT_CURSOR_HEADER, "12"))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void testEnableBuckets_WhenValidCount_ShouldReturnAccount() throws Exception {
+        // given
+        when(hotAccountBucketsMock.enable("123456", 8)).thenReturn(new AccountView(1L, "123456", BigDecimal.valueOf(1000), 8));
+
+        // when & then
+        mockMvc.perform(put("/api/v1/accounts/123456/buckets?count=8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets").value(8));
+    }
+
+    @Test
+    void testEnableBuckets_WhenInvalidCount_ShouldReturnBadRequest() throws Exception {
+        // when & then
+        mockMvc.perform(put("/api/v1/accounts/123456/buckets?count=1"))
+                .andExpect(status().isBadRequest());
+
+        verify(hotAccountBucketsMock, never()).enable(anyString(), anyInt());
+    }
+
+    @Test
+    void testGetAllAccounts_WhenInvalidLimit_ShouldReturnBadRequest() throws Exception {
+        // when & then
+        mockMvc.perform(get("/api/v1/accounts?limit=0")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(accountServiceMock, never()).getAccountsPage(any(), anyInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamAllAccounts_ShouldWriteNdjson() throws Exception {
+        // given
+        doAnswer(invocation -> {
+            Consumer<AccountBalance> consumer = invocation.getArgument(0);
+            consumer.accept(new AccountBalance(1L, "123456", BigDecimal.valueOf(1000)));
+            consumer.accept(new AccountBalance(2L, "654321", BigDecimal.valueOf(2000)));
+            return null;
+        }).when(accountServiceMock).streamAccounts(any());
+
+        // when
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/accounts?format=ndjson")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string("""
+                        {"id":1,"accountNumber":"123456","balance":1000}
+                        {"id":2,"accountNumber":"654321","balance":2000}
+                        """));
+    }
+
+    @Test
+    void testExportCsv_ShouldTransferFileAndDeleteIt(@TempDir Path directory) throws Exception {
+        // given
+        Path file = Files.writeString(directory.resolve("balances.csv"), "account_number,balance\n123456,1000.00\n");
+        when(balanceExporterMock.export(BalanceExporter.Format.CSV)).thenReturn(file);
+
+        // when
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/accounts?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("Content-Length", 38))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"balances.csv\""))
+                .andExpect(content().string("account_number,balance\n123456,1000.00\n"));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testImportCsv_ShouldReturnReport() throws Exception {
+        // given
+        when(accountImporterMock.importAccounts(any(), eq(AccountImporter.Format.CSV), any())).thenReturn(
+                new AccountImportReport(2, 1, 1, List.of(new AccountImportReject(3, "123456", "Duplicate account number"))));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/accounts/import")
+                        .contentType("text/csv")
+                        .content("account_number,balance\n123456,1000.00\n123456,20\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejects[0].line").value(3))
+                .andExpect(jsonPath("$.rejects[0].reason").value("Duplicate account number"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+package com.banking.account;
+
+import com.banking.error.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccountImporterTest {
+
+    private AccountRepository accountRepositoryMock;
+    private SimpleMeterRegistry meterRegistry;
+    private AccountImporter accountImporter;
+
+    @BeforeEach
+    void setUp() {
+        accountRepositoryMock = mock(AccountRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        accountImporter = new AccountImporter(accountRepositoryMock, mock(PlatformTransactionManager.class),
+                new ObjectMapper(), meterRegistry, 2, 2, 100);
+    }
+
+    @Test
+    void testImportAccounts_WhenCsvHasInvalidAndDuplicateRows_ShouldImportTheRestAndReportRejects() throws IOException {
+        // given
+        when(accountRepositoryMock.findExistingAccountNumbers(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> accountNumbers = invocation.getArgument(0);
+            return accountNumbers.stream().filter("777777"::equals).toList();
+        });
+        String csv = """
+                account_number,balance
+                123456,1000.00
+                654321,500
+                123456,20
+                ,100
+                111111,abc
+                222222
+                777777,10
+                333333,1.005
+                """;
+
+        // when
+        AccountImportReport report = accountImporter.importAccounts(new BufferedReader(new StringReader(csv)),
+                AccountImporter.Format.CSV, new AccountImporter.Listener() {
+                });
+
+        // then
+        assertEquals(8, report.read());
+        assertEquals(2, report.imported());
+        assertEquals(6, report.rejected());
+        assertEquals(Set.of(
+                new AccountImportReject(4, "123456", AccountImporter.DUPLICATE_ROW),
+                new AccountImportReject(5, "", ApiError.INVALID_ACCOUNT_NUMBER.getMessage()),
+                new AccountImportReject(6, "111111", ApiError.INVALID_INITIAL_BALANCE.getMessage()),
+                new AccountImportReject(7, null, AccountImporter.MALFORMED_ROW),
+                new AccountImportReject(8, "777777", ApiError.ACCOUNT_EXISTS.getMessage()),
+                new AccountImportReject(9, "333333", ApiError.INVALID_INITIAL_BALANCE.getMessage())),
+                Set.copyOf(report.rejects()));
+        assertEquals(2, meterRegistry.counter("banking.account.import.rows", "outcome", "imported").count());
+        verify(accountRepositoryMock, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void testImportAccounts_WhenAccountNumberQuoted_ShouldUnquoteIt() throws IOException {
+        // given
+        String csv = """
+                account_number,balance
+                "12,""34\""",10
+                "56
+                78",20
+                9"9,30
+                """;
+
+        // when
+        AccountImportReport report = accountImporter.importAccounts(new BufferedReader(new StringReader(csv)),
+                AccountImporter.Format.CSV, new AccountImporter.Listener() {
+                });
+
+        // then
+        assertEquals(2, report.imported());
+        assertEquals(List.of(new AccountImportReject(5, null, AccountImporter.MALFORMED_ROW)), report.rejects());
+        verify(accountRepositoryMock).findExistingAccountNumbers(List.of("12,\"34\"", "56\n78"));
+    }
+
+    @Test
+    void testImportAccounts_WhenNdjson_ShouldImportEveryRow() throws IOException {
+        // given
+        String ndjson = """
+                {"accountNumber":"123456","initialBalance":1000.00}
+                {"accountNumber":"654321","initialBalance":500}
+                {"accountNumber":"111111","initialBalance":20}
+                """;
+
+        // when
+        AccountImportReport report = accountImporter.importAccounts(new BufferedReader(new StringReader(ndjson)),
+                AccountImporter.Format.NDJSON, new AccountImporter.Listener() {
+                });
+
+        // then
+        assertEquals(3, report.imported());
+        assertEquals(0, report.rejected());
+        verify(accountRepositoryMock, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void testImportAccounts_WhenAccountCreatedConcurrently_ShouldRejectOnlyThatRow() throws IOException {
+        // given
+        doThrow(new DataIntegrityViolationException("ux_account_account_number")).when(accountRepositoryMock).flush();
+        when(accountRepositoryMock.saveAndFlush(argThat(account -> account != null && "654321".equals(account.getAccountNumber()))))
+                .thenThrow(new DataIntegrityViolationException("ux_account_account_number"));
+
+        // when
+        AccountImportReport report = accountImporter.importAccounts(new BufferedReader(new StringReader("123456,10\n654321,20\n")),
+                AccountImporter.Format.CSV, new AccountImporter.Listener() {
+                });
+
+        // then
+        assertEquals(1, report.imported());
+        assertEquals(List.of(new AccountImportReject(2, "654321", ApiError.ACCOUNT_EXISTS.getMessage())), report.rejects());
+        verify(accountRepositoryMock, times(2)).saveAndFlush(any());
+    }
+}
@@ -1,18 +1,31 @@
 package com.banking.account;
 
+import com.banking.error.ApiError;
+import com.banking.ledger.Ledger;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,15 +34,28 @@ class AccountServiceTest {
     @Mock
     private AccountRepository accountRepositoryMock;
 
+    @Mock
+    private Ledger ledgerMock;
+
+    @Mock
+    private CacheManager cacheManagerMock;
+
+    private final Cache accountsCache = new ConcurrentMapCache(AccountService.ACCOUNTS_CACHE);
+
     @InjectMocks
     private AccountService accountServiceMock;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(cacheManagerMock.getCache(AccountService.ACCOUNTS_CACHE)).thenReturn(accountsCache);
+    }
+
     @Test
     void testCreateAccount_WhenAccountDoesNotExist_ShouldCreateNewAccount() {
         // given
         AccountCreateDto accountCreateDto = new AccountCreateDto("123456", BigDecimal.valueOf(1000));
-        when(accountRepositoryMock.findByAccountNumber("123456")).thenReturn(null);
-        when(accountRepositoryMock.save(any(Account.class))).thenReturn(Account.builder()
+        when(accountRepositoryMock.existsByAccountNumber("123456")).thenReturn(false);
+        when(accountRepositoryMock.saveAndFlush(any(Account.class))).thenReturn(Account.builder()
                 .accountNumber("123456")
                 .balance(BigDecimal.valueOf(1000))
                 .build());
@@ -40,21 +66,33 @@ class AccountServiceTest {
         // then
         assertEquals("123456", newAccount.getAccountNumber());
         assertEquals(BigDecimal.valueOf(1000), newAccount.getBalance());
-        verify(accountRepositoryMock, times(1)).save(any(Account.class));
+        verify(accountRepositoryMock, times(1)).saveAndFlush(any(Account.class));
+        verify(accountRepositoryMock, never()).findByAccountNumber(anyString());
     }
 
     @Test
     void testCreateAccount_WhenAccountAlreadyExists_ShouldThrowException() {
         // given
         AccountCreateDto accountCreateDto = new AccountCreateDto("123456", BigDecimal.valueOf(1000));
-        when(accountRepositoryMock.findByAccountNumber("123456")).thenReturn(Account.builder()
-                .accountNumber("123456")
-                .balance(BigDecimal.valueOf(1000))
-                .build());
+        when(accountRepositoryMock.existsByAccountNumber("123456")).thenReturn(true);
 
         // then
         assertThrows(RuntimeException.class, () -> accountServiceMock.createAccount(accountCreateDto));
-        verify(accountRepositoryMock, never()).save(any(Account.class));
+        verify(accountRepositoryMock, never()).saveAndFlush(any(Account.class));
+    }
+
+    @Test
+    void testCreateAccount_WhenCreatedConcurrently_ShouldThrowException() {
+        // given
+        AccountCreateDto accountCreateDto = new AccountCreateDto("123456", BigDecimal.valueOf(1000));
+        when(accountRepositoryMock.existsByAccountNumber("123456")).thenReturn(false);
+        when(accountRepositoryMock.saveAndFlush(any(Account.class)))
+                .thenThrow(new DataIntegrityViolationException("ux_account_account_number"));
+
+        // then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> accountServiceMock.createAccount(accountCreateDto));
+        assertEquals("Account has already been created", exception.getMessage());
     }
 
     @Test
@@ -66,11 +104,11 @@ class AccountServiceTest {
                 .build());
 
         // when
-        Account account = accountServiceMock.getAccountInfo("123456");
+        AccountView account = accountServiceMock.getAccountInfo("123456");
 
         // then
-        assertEquals("123456", account.getAccountNumber());
-        assertEquals(BigDecimal.valueOf(1000), account.getBalance());
+        assertEquals("123456", account.accountNumber());
+        assertEquals(BigDecimal.valueOf(1000), account.balance());
         verify(accountRepositoryMock, times(1)).findByAccountNumber("123456");
     }
 
@@ -85,22 +123,137 @@ class AccountServiceTest {
     }
 
     @Test
-    void testGetAllAccounts_ShouldReturnListOfAccounts() {
+    void testGetAccountInfo_WhenAccountHasBuckets_ShouldSumBuckets() {
+        // given
+        when(accountRepositoryMock.findByAccountNumber("123456")).thenReturn(Account.builder()
+                .accountNumber("123456")
+                .balance(BigDecimal.valueOf(1000))
+                .buckets(4)
+                .build());
+        when(accountRepositoryMock.sumBucketBalances("123456")).thenReturn(BigDecimal.valueOf(500));
+
+        // when
+        AccountView account = accountServiceMock.getAccountInfo("123456");
+
+        // then
+        assertEquals(BigDecimal.valueOf(1500), account.balance());
+    }
+
+    @Test
+    void testGetAccountInfo_WhenLedgerEnabled_ShouldAddLedgerTailToSnapshot() {
+        // given
+        when(ledgerMock.isEnabled()).thenReturn(true);
+        when(accountRepositoryMock.findByAccountNumber("123456")).thenReturn(Account.builder()
+                .accountNumber("123456")
+                .balance(BigDecimal.valueOf(1000))
+                .ledgerPosition(40L)
+                .build());
+        when(ledgerMock.balanceOf("123456", BigDecimal.valueOf(1000), 40L)).thenReturn(BigDecimal.valueOf(1250));
+
+        // when
+        AccountView account = accountServiceMock.getAccountInfo("123456");
+
+        // then
+        assertEquals(BigDecimal.valueOf(1250), account.balance());
+    }
+
+    @Test
+    void testStreamAccounts_WhenLedgerEnabled_ShouldStreamBalancesWithLedgerTail() {
         // given
-        List<Account> accounts = Arrays.asList(
-                Account.builder().accountNumber("123456").balance(BigDecimal.valueOf(1000)).build(),
-                Account.builder().accountNumber("654321").balance(BigDecimal.valueOf(2000)).build()
+        AccountBalance balance = new AccountBalance(1L, "123456", BigDecimal.valueOf(1250));
+        when(ledgerMock.isEnabled()).thenReturn(true);
+        when(accountRepositoryMock.streamAllLedgerBalances()).thenReturn(Stream.of(balance));
+        List<AccountBalance> streamed = new ArrayList<>();
+
+        // when
+        accountServiceMock.streamAccounts(streamed::add);
+
+        // then
+        assertEquals(List.of(balance), streamed);
+        verify(accountRepositoryMock, never()).streamAllBalances();
+    }
+
+    @Test
+    void testGetAccountInfo_WhenCached_ShouldNotQueryRepository() {
+        // given
+        AccountView cached = new AccountView(1L, "123456", BigDecimal.valueOf(1200), null);
+        accountServiceMock.cacheAccountInfo(cached);
+
+        // when
+        AccountView account = accountServiceMock.getAccountInfo("123456");
+
+        // then
+        assertEquals(cached, account);
+        verify(accountRepositoryMock, never()).findByAccountNumber(anyString());
+    }
+
+    @Test
+    void testGetAccountInfo_WhenAccountHasBuckets_ShouldNotCacheView() {
+        // given
+        when(accountRepositoryMock.findByAccountNumber("123456")).thenReturn(Account.builder()
+                .accountNumber("123456")
+                .balance(BigDecimal.valueOf(1000))
+                .buckets(4)
+                .build());
+        when(accountRepositoryMock.sumBucketBalances("123456")).thenReturn(BigDecimal.valueOf(500));
+
+        // when
+        accountServiceMock.getAccountInfo("123456");
+        accountServiceMock.getAccountInfo("123456");
+
+        // then
+        verify(accountRepositoryMock, times(2)).findByAccountNumber("123456");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEnableBuckets_ShouldCreateMissingBuckets() {
+        // given
+        Account account = Account.builder().accountNumber("123456").balance(BigDecimal.valueOf(1000)).buckets(2).build();
+        when(accountRepositoryMock.findByAccountNumber("123456")).thenReturn(account);
+
+        // when
+        accountServiceMock.enableBuckets("123456", 4);
+
+        // then
+        ArgumentCaptor<List<Account>> captor = ArgumentCaptor.forClass(List.class);
+        verify(accountRepositoryMock, times(1)).saveAll(captor.capture());
+        assertEquals(List.of("123456#2", "123456#3"), captor.getValue().stream().map(Account::getAccountNumber).toList());
+        verify(accountRepositoryMock, times(1)).updateBuckets("123456", 4);
+        assertThrows(ApiError.class, () -> accountServiceMock.enableBuckets("123456", 1));
+    }
+
+    @Test
+    void testGetAccountsPage_ShouldReturnAccountsAfterCursor() {
+        // given
+        List<AccountView> accounts = Arrays.asList(
+                new AccountView(11L, "123456", BigDecimal.valueOf(1000), null),
+                new AccountView(12L, "654321", BigDecimal.valueOf(2000), null)
         );
-        when(accountRepositoryMock.findAll()).thenReturn(accounts);
+        when(accountRepositoryMock.findPage(eq(10L), argThat(limit -> limit.max() == 2))).thenReturn(accounts);
+
+        // when
+        List<AccountView> page = accountServiceMock.getAccountsPage(10L, 2);
+
+        // then
+        assertEquals(2, page.size());
+        assertEquals("123456", page.get(0).accountNumber());
+        assertEquals("654321", page.get(1).accountNumber());
+        verify(accountRepositoryMock, never()).findAll();
+        verify(accountRepositoryMock, never()).findByIdGreaterThanAndParentAccountNumberIsNullOrderByIdAsc(any(), any(Limit.class));
+    }
+
+    @Test
+    void testGetAccountsPage_WhenNoCursor_ShouldStartFromBeginning() {
+        // given
+        when(accountRepositoryMock.findPage(eq(0L), argThat(limit -> limit.max() == 100))).thenReturn(List.of());
 
         // when
-        List<Account> allAccounts = accountServiceMock.getAllAccounts();
+        List<AccountView> page = accountServiceMock.getAccountsPage(null, 100);
 
         // then
-        assertEquals(2, allAccounts.size());
-        assertEquals("123456", allAccounts.get(0).getAccountNumber());
-        assertEquals("654321", allAccounts.get(1).getAccountNumber());
-        verify(accountRepositoryMock, times(1)).findAll();
+        assertEquals(0, page.size());
+        verify(accountRepositoryMock, times(1)).findPage(eq(0L), any(Limit.class));
     }
 
     @Test
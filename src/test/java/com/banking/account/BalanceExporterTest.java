@@ -0,0 +1,112 @@
+package com.banking.account;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class BalanceExporterTest {
+
+    @TempDir
+    private Path directory;
+
+    private AccountService accountServiceMock;
+    private BalanceExporter balanceExporter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        accountServiceMock = mock(AccountService.class);
+        doAnswer(invocation -> {
+            Consumer<AccountBalance> consumer = invocation.getArgument(0);
+            consumer.accept(new AccountBalance(1L, "123456", new BigDecimal("1000.50")));
+            consumer.accept(new AccountBalance(2L, "654321", BigDecimal.valueOf(20)));
+            return null;
+        }).when(accountServiceMock).streamAccounts(any());
+        balanceExporter = new BalanceExporter(accountServiceMock, directory.toString(), 1);
+    }
+
+    @Test
+    void testExport_WhenCsv_ShouldWriteOneLinePerAccount() throws IOException {
+        // when
+        Path file = balanceExporter.export(BalanceExporter.Format.CSV);
+
+        // then
+        assertEquals("""
+                account_number,balance
+                123456,1000.50
+                654321,20
+                """, Files.readString(file));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExport_WhenAccountNumberNeedsQuoting_ShouldQuoteIt() throws IOException {
+        // given
+        doAnswer(invocation -> {
+            Consumer<AccountBalance> consumer = invocation.getArgument(0);
+            consumer.accept(new AccountBalance(1L, "12,\"34\"", BigDecimal.ONE));
+            return null;
+        }).when(accountServiceMock).streamAccounts(any());
+
+        // when
+        Path file = balanceExporter.export(BalanceExporter.Format.CSV);
+
+        // then
+        assertEquals("""
+                account_number,balance
+                "12,""34\""",1
+                """, Files.readString(file));
+    }
+
+    @Test
+    void testExport_WhenBinary_ShouldWriteHeaderAndMinorUnits() throws IOException {
+        // when
+        Path file = directory.resolve("balances.bin");
+        long accounts = balanceExporter.export(BalanceExporter.Format.BINARY, file);
+
+        // then
+        assertEquals(2, accounts);
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+            assertEquals(BalanceExporter.MAGIC, input.readInt());
+            assertEquals(BalanceExporter.VERSION, input.readByte());
+            assertEquals(2, input.readByte());
+            assertEquals(2, input.readLong());
+            assertEquals(1L, input.readLong());
+            assertEquals("123456", new String(input.readNBytes(input.readShort()), StandardCharsets.UTF_8));
+            assertEquals(100_050, input.readLong());
+            assertEquals(2L, input.readLong());
+            assertEquals("654321", new String(input.readNBytes(input.readShort()), StandardCharsets.UTF_8));
+            assertEquals(2_000, input.readLong());
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    void testExport_WhenStreamFails_ShouldDeleteFile() throws IOException {
+        // given
+        doThrow(new IllegalStateException("Connection lost")).when(accountServiceMock).streamAccounts(any());
+
+        // when
+        assertThrows(IllegalStateException.class, () -> balanceExporter.export(BalanceExporter.Format.CSV));
+
+        // then
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.banking.balance;
+
+import com.banking.account.Account;
+import com.banking.account.AccountService;
+import com.banking.account.AccountView;
+import com.banking.account.BalanceUpdate;
+import com.banking.error.ApiError;
+import com.banking.ledger.Ledger;
+import com.banking.ledger.LedgerEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceEngineTest {
+
+    @Mock
+    private AccountService accountServiceMock;
+
+    @Mock
+    private Ledger ledgerMock;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testCredit_WhenConcurrent_ShouldApplyEveryUpdate() throws Exception {
+        // given
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        when(accountServiceMock.getAccount("123456")).thenReturn(account("123456", 0));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> balanceEngine.credit("123456", BigDecimal.ONE));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // then
+        assertEquals(new BigDecimal("1000.00"), Money.toDecimal(balanceEngine.load("123456").getBalance()));
+        verify(accountServiceMock, times(1)).getAccount("123456");
+    }
+
+    @Test
+    void testDebit_WhenInsufficientFunds_ShouldKeepBalance() {
+        // given
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        when(accountServiceMock.getAccount("123456")).thenReturn(account("123456", 100));
+
+        // then
+        assertThrows(ApiError.class, () -> balanceEngine.debit("123456", BigDecimal.valueOf(200)));
+        assertEquals(new BigDecimal("100.00"), Money.toDecimal(balanceEngine.load("123456").getBalance()));
+    }
+
+    @Test
+    void testCredit_WhenTransactionRolledBack_ShouldRestoreBalanceAndReleaseLock() {
+        // given
+        AccountLockStripes lockStripes = new AccountLockStripes(16);
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, lockStripes, ledgerMock, false, false, 1000);
+        when(accountServiceMock.getAccount("123456")).thenReturn(account("123456", 100));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        balanceEngine.credit("123456", BigDecimal.valueOf(50));
+        balanceEngine.debit("123456", BigDecimal.valueOf(20));
+        assertTrue(lockStripes.lockFor("123456").isHeldByCurrentThread());
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // then
+        assertEquals(0, lockStripes.lockFor("123456").getHoldCount());
+        verify(accountServiceMock, never()).evictAccountInfo(anyString());
+        verify(accountServiceMock, never()).cacheAccountInfo(any());
+        assertEquals(new BigDecimal("100.00"), Money.toDecimal(balanceEngine.load("123456").getBalance()));
+    }
+
+    @Test
+    void testCredit_WhenTransactionCommits_ShouldWriteEachBalanceOnce() {
+        // given
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        when(accountServiceMock.getAccount("123456")).thenReturn(account("123456", 100));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        balanceEngine.credit("123456", BigDecimal.valueOf(50));
+        balanceEngine.credit("123456", BigDecimal.valueOf(25));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        // then
+        verify(accountServiceMock, times(1)).updateBalances(anyList());
+        verify(accountServiceMock, times(1)).updateBalances(List.of(new BalanceUpdate("123456", new BigDecimal("175.00"), 0L)));
+        verify(accountServiceMock, times(1)).cacheAccountInfo(new AccountView(1L, "123456", new BigDecimal("175.00"), null));
+    }
+
+    @Test
+    void testAtomically_WhenTransferCreditOverflows_ShouldRestoreOnlyThatTransfer() {
+        // given
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        TransferEngine transferEngine = new TransferEngine(balanceEngine);
+        when(accountServiceMock.getAccount("123456")).thenReturn(account("123456", 100));
+        when(accountServiceMock.getAccount("654321")).thenReturn(Account.builder().id(2L).accountNumber("654321")
+                .balance(BigDecimal.valueOf(Long.MAX_VALUE, 2)).build());
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        balanceEngine.credit("123456", BigDecimal.TEN);
+        assertThrows(ApiError.class, () -> balanceEngine.atomically(
+                () -> transferEngine.transfer("123456", "654321", BigDecimal.valueOf(50))));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        // then
+        verify(accountServiceMock, times(1)).updateBalances(List.of(new BalanceUpdate("123456", new BigDecimal("110.00"), 0L)));
+    }
+
+    @Test
+    void testCredit_WhenVersionConflict_ShouldReloadAccountOnNextOperation() {
+        // given
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        when(accountServiceMock.getAccount("123456"))
+                .thenReturn(account("123456", 100))
+                .thenReturn(Account.builder().id(1L).accountNumber("123456").balance(BigDecimal.valueOf(300)).version(4L).build());
+        doThrow(new ObjectOptimisticLockingFailureException(Account.class, "123456"))
+                .doNothing()
+                .when(accountServiceMock).updateBalances(anyList());
+
+        // when
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> balanceEngine.credit("123456", BigDecimal.TEN));
+        balanceEngine.credit("123456", BigDecimal.TEN);
+
+        // then
+        CachedBalance account = balanceEngine.load("123456");
+        assertEquals(new BigDecimal("310.00"), Money.toDecimal(account.getBalance()));
+        assertEquals(5L, account.getVersion());
+        verify(accountServiceMock, times(2)).getAccount("123456");
+        verify(accountServiceMock).updateBalances(List.of(new BalanceUpdate("123456", new BigDecimal("310.00"), 4L)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WhenWriteBehind_ShouldPersistLatestBalances() {
+        // given
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, true, false, 1000);
+        when(accountServiceMock.getAccount("123456")).thenReturn(account("123456", 100));
+
+        // when
+        balanceEngine.credit("123456", BigDecimal.valueOf(50));
+        balanceEngine.debit("123456", BigDecimal.valueOf(30));
+        balanceEngine.flush();
+
+        // then
+        ArgumentCaptor<Map<String, BigDecimal>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(accountServiceMock, never()).updateBalances(anyList());
+        verify(accountServiceMock, times(1)).overwriteBalances(captor.capture());
+        assertEquals(Map.of("123456", new BigDecimal("120.00")), captor.getValue());
+    }
+
+    @Test
+    void testCredit_WhenAccountHasBuckets_ShouldSpreadCreditsAcrossBuckets() throws Exception {
+        // given
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        when(accountServiceMock.getAccount(anyString()))
+                .thenAnswer(invocation -> bucket(invocation.getArgument(0), 0));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> balanceEngine.credit("123456", BigDecimal.ONE));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // then
+        List<String> keys = balanceEngine.keysOf("123456");
+        assertEquals(List.of("123456", "123456#1", "123456#2", "123456#3"), keys);
+        assertEquals(100_000L, total(balanceEngine, keys));
+        assertTrue(keys.stream().allMatch(key -> balanceEngine.load(key).getBalance() > 0));
+    }
+
+    @Test
+    void testDebit_WhenAccountHasBuckets_ShouldDrawAcrossBuckets() {
+        // given
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        when(accountServiceMock.getAccount(anyString()))
+                .thenAnswer(invocation -> bucket(invocation.getArgument(0), 25));
+
+        // when
+        balanceEngine.debit("123456", BigDecimal.valueOf(70));
+
+        // then
+        assertEquals(3000L, total(balanceEngine, balanceEngine.keysOf("123456")));
+        assertThrows(ApiError.class, () -> balanceEngine.debit("123456", BigDecimal.valueOf(31)));
+        assertEquals(3000L, total(balanceEngine, balanceEngine.keysOf("123456")));
+    }
+
+    @Test
+    void testRebalance_WhenBucketRunsLow_ShouldSpreadTotalEvenly() {
+        // given
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        when(accountServiceMock.getAccount(anyString()))
+                .thenAnswer(invocation -> bucket(invocation.getArgument(0), 0));
+        List<String> keys = balanceEngine.keysOf("123456");
+        balanceEngine.apply("123456", balance -> 10_303);
+
+        // when
+        boolean rebalanced = balanceEngine.locked(keys, () -> balanceEngine.rebalance(keys));
+
+        // then
+        assertTrue(rebalanced);
+        assertEquals(2578L, balanceEngine.load("123456").getBalance());
+        assertEquals(2575L, balanceEngine.load("123456#3").getBalance());
+        verify(accountServiceMock, never()).evictAccountInfo("123456#3");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCredit_WhenLedgerEnabled_ShouldAppendEntriesInsteadOfUpdatingRows() {
+        // given
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        when(ledgerMock.isEnabled()).thenReturn(true);
+        when(ledgerMock.entry(anyString(), any(BigDecimal.class)))
+                .thenAnswer(invocation -> LedgerEntry.builder()
+                        .accountNumber(invocation.getArgument(0))
+                        .amount(invocation.getArgument(1))
+                        .build());
+        when(accountServiceMock.getAccount("123456")).thenReturn(account("123456", 100));
+        when(ledgerMock.balanceOf("123456", BigDecimal.valueOf(100), null)).thenReturn(BigDecimal.valueOf(160));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        balanceEngine.credit("123456", BigDecimal.valueOf(50));
+        balanceEngine.debit("123456", BigDecimal.valueOf(20));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        // then
+        ArgumentCaptor<List<LedgerEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerMock, times(1)).append(captor.capture());
+        assertEquals(List.of(new BigDecimal("50.00"), new BigDecimal("-20.00")),
+                captor.getValue().stream().map(LedgerEntry::getAmount).toList());
+        verify(accountServiceMock, never()).updateBalances(anyList());
+        assertEquals(19_000L, balanceEngine.load("123456").getBalance());
+    }
+
+    private static Account bucket(String key, long balance) {
+        return Account.builder()
+                .id((long) key.hashCode())
+                .accountNumber(key)
+                .balance(BigDecimal.valueOf(balance))
+                .buckets(key.indexOf('#') < 0 ? 4 : null)
+                .build();
+    }
+
+    private static long total(BalanceEngine balanceEngine, List<String> keys) {
+        return keys.stream().mapToLong(key -> balanceEngine.load(key).getBalance()).sum();
+    }
+
+    private static Account account(String accountNumber, long balance) {
+        return Account.builder().id(1L).accountNumber(accountNumber).balance(BigDecimal.valueOf(balance)).build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.banking.balance;
+
+import com.banking.account.Account;
+import com.banking.account.AccountService;
+import com.banking.ledger.Ledger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerSnapshotsTest {
+
+    @Mock
+    private AccountService accountServiceMock;
+
+    @Mock
+    private Ledger ledgerMock;
+
+    @Mock
+    private PlatformTransactionManager transactionManagerMock;
+
+    private LedgerSnapshots ledgerSnapshots;
+
+    @BeforeEach
+    void setUp() {
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        ledgerSnapshots = new LedgerSnapshots(ledgerMock, accountServiceMock, balanceEngine, transactionManagerMock);
+    }
+
+    @Test
+    void testSnapshot_WhenLedgerHasTail_ShouldStoreBalanceAndPosition() {
+        // given
+        when(accountServiceMock.getAccount("123456")).thenReturn(account(40L));
+        when(ledgerMock.lastEntryIdOf("123456")).thenReturn(75L);
+        when(ledgerMock.balanceOf("123456", BigDecimal.valueOf(1000), 40L, 75L)).thenReturn(BigDecimal.valueOf(1250));
+
+        // when
+        boolean snapshotted = ledgerSnapshots.snapshot("123456");
+
+        // then
+        assertTrue(snapshotted);
+        verify(accountServiceMock, times(1)).snapshotBalance("123456", BigDecimal.valueOf(1250), 75L);
+    }
+
+    @Test
+    void testSnapshot_WhenSnapshotIsCurrent_ShouldSkipAccount() {
+        // given
+        when(accountServiceMock.getAccount("123456")).thenReturn(account(75L));
+        when(ledgerMock.lastEntryIdOf("123456")).thenReturn(75L);
+
+        // when
+        boolean snapshotted = ledgerSnapshots.snapshot("123456");
+
+        // then
+        assertFalse(snapshotted);
+        verify(accountServiceMock, never()).snapshotBalance(anyString(), any(BigDecimal.class), anyLong());
+    }
+
+    @Test
+    void testSnapshot_WhenLedgerDisabled_ShouldDoNothing() {
+        // when
+        ledgerSnapshots.snapshot();
+
+        // then
+        verify(ledgerMock, never()).accountsChangedAfter(anyLong());
+        verifyNoInteractions(accountServiceMock, transactionManagerMock);
+    }
+
+    private static Account account(Long ledgerPosition) {
+        return Account.builder()
+                .id(1L)
+                .accountNumber("123456")
+                .balance(BigDecimal.valueOf(1000))
+                .ledgerPosition(ledgerPosition)
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.banking.balance;
+
+import com.banking.error.ApiError;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @Test
+    void testToMinorUnits_WhenAmountFitsScale_ShouldRoundTrip() {
+        // when
+        long minorUnits = Money.toMinorUnits(new BigDecimal("12.5"));
+
+        // then
+        assertEquals(1250L, minorUnits);
+        assertEquals(new BigDecimal("12.50"), Money.toDecimal(minorUnits));
+    }
+
+    @Test
+    void testToMinorUnits_WhenAmountHasMoreDecimals_ShouldRejectAmount() {
+        // when & then
+        ApiError exception = assertThrows(ApiError.class,
+                () -> Money.toMinorUnits(new BigDecimal("0.001")));
+        assertEquals("Invalid amount", exception.getMessage());
+    }
+
+    @Test
+    void testAdd_WhenResultOverflows_ShouldRejectOperation() {
+        // when & then
+        ApiError exception = assertThrows(ApiError.class,
+                () -> Money.add(Long.MAX_VALUE, 1));
+        assertEquals("Balance overflow", exception.getMessage());
+    }
+}
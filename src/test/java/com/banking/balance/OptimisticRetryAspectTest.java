@@ -0,0 +1,66 @@
+package com.banking.balance;
+
+import com.banking.account.Account;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OptimisticRetryAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConflictingOperation target;
+    private ConflictingOperation proxy;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = new ConflictingOperation();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new OptimisticRetryAspect(meterRegistry, 3, 1, 2));
+        proxy = proxyFactory.getProxy();
+    }
+
+    @Test
+    void testRetry_WhenConflictResolves_ShouldSucceedAndCountConflicts() {
+        // given
+        target.failures = 2;
+
+        // when
+        proxy.deposit();
+
+        // then
+        assertEquals(3, target.calls);
+        assertEquals(2, meterRegistry.counter("banking.balance.optimistic.conflicts", "operation", "deposit").count());
+        assertEquals(3, meterRegistry.counter("banking.balance.optimistic.attempts", "operation", "deposit").count());
+    }
+
+    @Test
+    void testRetry_WhenConflictPersists_ShouldGiveUpAfterMaxAttempts() {
+        // given
+        target.failures = 10;
+
+        // then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> proxy.deposit());
+        assertEquals(3, target.calls);
+        assertEquals(1, meterRegistry.counter("banking.balance.optimistic.exhausted", "operation", "deposit").count());
+    }
+
+    static class ConflictingOperation {
+        int failures;
+        int calls;
+
+        @OptimisticRetry
+        public void deposit() {
+            calls++;
+            if (calls <= failures) {
+                throw new ObjectOptimisticLockingFailureException(Account.class, "123456");
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.banking.balance;
+
+import com.banking.account.Account;
+import com.banking.account.AccountService;
+import com.banking.error.ApiError;
+import com.banking.ledger.Ledger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferEngineTest {
+
+    @Mock
+    private AccountService accountServiceMock;
+
+    @Mock
+    private Ledger ledgerMock;
+
+    @Test
+    void testTransfer_WhenOppositeDirectionsConcurrently_ShouldCompleteAndKeepTotal() throws Exception {
+        // given
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        TransferEngine transferEngine = new TransferEngine(balanceEngine);
+        when(accountServiceMock.getAccount("123456")).thenReturn(account(1L, "123456"));
+        when(accountServiceMock.getAccount("654321")).thenReturn(account(2L, "654321"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> transferEngine.transfer("123456", "654321", BigDecimal.ONE));
+            executor.submit(() -> transferEngine.transfer("654321", "123456", BigDecimal.ONE));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // then
+        assertEquals(100_000L, balanceEngine.load("123456").getBalance());
+        assertEquals(100_000L, balanceEngine.load("654321").getBalance());
+    }
+
+    @Test
+    void testTransfer_WhenSameAccount_ShouldThrowException() {
+        // given
+        TransferEngine transferEngine = new TransferEngine(
+                new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000));
+
+        // then
+        assertThrows(ApiError.class, () ->
+                transferEngine.transfer("123456", "123456", BigDecimal.ONE));
+        verifyNoInteractions(accountServiceMock);
+    }
+
+    private static Account account(Long id, String accountNumber) {
+        return Account.builder().id(id).accountNumber(accountNumber).balance(BigDecimal.valueOf(1000)).build();
+    }
+}
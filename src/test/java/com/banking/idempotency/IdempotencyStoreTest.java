@@ -0,0 +1,84 @@
+package com.banking.idempotency;
+
+import com.banking.error.ApiError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepositoryMock;
+
+    @Test
+    void testExecute_WhenKeyExpired_ShouldRunActionAgain() {
+        // given
+        IdempotencyStore store = new IdempotencyStore(idempotencyRecordRepositoryMock, new SimpleMeterRegistry(), false, 1000, 2);
+        AtomicInteger calls = new AtomicInteger();
+        store.execute("key-1", "deposit|123456", () -> ResponseEntity.ok("Deposit " + calls.incrementAndGet()));
+
+        // when
+        store.rotate();
+        ResponseEntity<String> beforeExpiry = store.execute("key-1", "deposit|123456", () -> ResponseEntity.ok("Deposit " + calls.incrementAndGet()));
+        store.rotate();
+        ResponseEntity<String> afterExpiry = store.execute("key-1", "deposit|123456", () -> ResponseEntity.ok("Deposit " + calls.incrementAndGet()));
+
+        // then
+        assertEquals("Deposit 1", beforeExpiry.getBody());
+        assertEquals("true", beforeExpiry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals("Deposit 2", afterExpiry.getBody());
+        verify(idempotencyRecordRepositoryMock, never()).save(any());
+    }
+
+    @Test
+    void testExecute_WhenActionFails_ShouldForgetKey() {
+        // given
+        IdempotencyStore store = new IdempotencyStore(idempotencyRecordRepositoryMock, new SimpleMeterRegistry(), true, 1000, 2);
+
+        // when
+        assertThrows(RuntimeException.class, () -> store.execute("key-1", "withdraw|123456", () -> {
+            throw new RuntimeException("Insufficient funds");
+        }));
+        ResponseEntity<String> retried = store.execute("key-1", "withdraw|123456", () -> ResponseEntity.ok("Withdrawal successful"));
+
+        // then
+        assertEquals("Withdrawal successful", retried.getBody());
+        verify(idempotencyRecordRepositoryMock).save(any());
+    }
+
+    @Test
+    void testAfterPropertiesSet_WhenRecordsPersisted_ShouldReplayThem() {
+        // given
+        when(idempotencyRecordRepositoryMock.findAllByCreatedAtAfter(any())).thenReturn(List.of(
+                new IdempotencyRecord("key-1", "transfer|123456|654321|10", 200, "Transfer successful", Instant.now())));
+        IdempotencyStore store = new IdempotencyStore(idempotencyRecordRepositoryMock, new SimpleMeterRegistry(), true, 1000, 2);
+
+        // when
+        store.afterPropertiesSet();
+
+        // then
+        ResponseEntity<String> replayed = store.execute("key-1", "transfer|123456|654321|10", () -> {
+            throw new AssertionError("Replayed request must not run again");
+        });
+        assertEquals("Transfer successful", replayed.getBody());
+        ApiError mismatch = assertThrows(ApiError.class,
+                () -> store.execute("key-1", "transfer|123456|654321|20", () -> ResponseEntity.ok("Transfer successful")));
+        assertSame(ApiError.IDEMPOTENCY_KEY_REUSED, mismatch);
+    }
+}
@@ -0,0 +1,145 @@
+package com.banking.journal;
+
+import com.banking.TransactionType;
+import com.banking.balance.BalanceEngine;
+import com.banking.error.ApiError;
+import com.banking.transaction.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TransactionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final BalanceEngine balanceEngine = mock(BalanceEngine.class);
+
+    @Test
+    void testOpen_WhenRecordsNotApplied_ShouldReplayThemInOrder() throws Exception {
+        // given
+        TransactionJournal journal = journal(1);
+        journal.open(0);
+        journal.append(transaction(TransactionType.DEPOSIT, "123456", null, 100), Map.of()).get();
+        journal.append(transaction(TransactionType.TRANSFER, "123456", "654321", 40), Map.of()).get();
+        journal.close();
+
+        // when
+        TransactionJournal reopened = journal(1);
+        List<JournalRecord> unapplied = reopened.open(1);
+
+        // then
+        assertEquals(1, unapplied.size());
+        assertEquals(new JournalRecord(2, TransactionType.TRANSFER, "123456", "654321", BigDecimal.valueOf(40), Map.of()), unapplied.get(0));
+        reopened.append(transaction(TransactionType.WITHDRAWAL, "654321", null, 10), Map.of()).get();
+        assertEquals(3, reopened.takeDurable(1, 100).get(0).sequence());
+        reopened.close();
+    }
+
+    @Test
+    void testAppend_WhenConcurrent_ShouldMakeEveryRecordDurableOnce() throws Exception {
+        // given
+        TransactionJournal journal = journal(1);
+        journal.open(0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        List<Future<CompletableFuture<Void>>> appends = IntStream.range(0, 500)
+                .mapToObj(i -> executor.submit(() -> journal.append(transaction(TransactionType.DEPOSIT, "123456", null, 1), Map.of())))
+                .toList();
+        for (Future<CompletableFuture<Void>> append : appends) {
+            append.get().get();
+        }
+        executor.shutdown();
+
+        // then
+        List<JournalRecord> durable = journal.takeDurable(1000, 100);
+        assertEquals(500, durable.size());
+        assertTrue(IntStream.range(0, 500).allMatch(i -> durable.get(i).sequence() == i + 1));
+        journal.close();
+    }
+
+    @Test
+    void testAppend_WhenEverythingApplied_ShouldReuseFileFromStart() throws Exception {
+        // given
+        TransactionJournal journal = journal(1);
+        journal.open(0);
+        int appended = 0;
+
+        // when
+        for (int i = 0; i < 40_000; i++) {
+            journal.append(transaction(TransactionType.DEPOSIT, "123456", null, 1), Map.of()).get();
+            journal.applied(++appended);
+        }
+        journal.close();
+
+        // then
+        TransactionJournal reopened = journal(1);
+        assertEquals(List.of(), reopened.open(appended));
+        reopened.close();
+    }
+
+    @Test
+    void testAppend_WhenForceFails_ShouldDiscardRecordRevertItsChangesAndRecover() throws Exception {
+        // given
+        AtomicBoolean failing = new AtomicBoolean(true);
+        TransactionJournal journal = new TransactionJournal(balanceEngine, true, directory.resolve("transactions.journal"), 1, 200, 64, 5000) {
+            @Override
+            void force(int from, int length) {
+                if (failing.getAndSet(false)) {
+                    throw new UncheckedIOException(new IOException("Disk error"));
+                }
+                super.force(from, length);
+            }
+        };
+        journal.open(0);
+
+        // when
+        CompletableFuture<Void> discarded = journal.append(transaction(TransactionType.DEPOSIT, "123456", null, 100), Map.of("123456#2", 10_000L));
+        ExecutionException failure = assertThrows(ExecutionException.class, discarded::get);
+        journal.append(transaction(TransactionType.WITHDRAWAL, "654321", null, 10), Map.of("654321", -1_000L)).get();
+        journal.close();
+
+        // then
+        assertSame(ApiError.JOURNAL_UNAVAILABLE, failure.getCause());
+        verify(balanceEngine, times(1)).revert(Map.of("123456#2", 10_000L));
+        TransactionJournal reopened = journal(1);
+        assertEquals(List.of(new JournalRecord(1, TransactionType.WITHDRAWAL, "654321", null, BigDecimal.valueOf(10), Map.of("654321", -1_000L))),
+                reopened.open(0));
+        reopened.close();
+    }
+
+    private TransactionJournal journal(int sizeMb) {
+        return new TransactionJournal(balanceEngine, true, directory.resolve("transactions.journal"), sizeMb, 200, 64, 5000);
+    }
+
+    private static Transaction transaction(TransactionType type, String accountNumber, String targetAccountNumber, long amount) {
+        return Transaction.builder()
+                .type(type)
+                .accountNumber(accountNumber)
+                .targetAccountNumber(targetAccountNumber)
+                .amount(BigDecimal.valueOf(amount))
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.banking.ratelimit;
+
+import com.banking.error.ApiError;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdmissionControlTest {
+
+    @Test
+    void testAdmit_WhenPoolWaitExceedsThreshold_ShouldShedUntilItRecovers() {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Timer acquire = meterRegistry.timer(AdmissionControl.ACQUIRE_TIMER);
+        AdmissionControl admissionControl = new AdmissionControl(meterRegistry, true, 50);
+
+        // when
+        acquire.record(Duration.ofMillis(200));
+        acquire.record(Duration.ofMillis(100));
+        admissionControl.sample();
+
+        // then
+        assertThrows(ApiError.class, admissionControl::admit);
+        assertEquals(1, meterRegistry.counter("banking.admission.rejected").count());
+
+        // when
+        acquire.record(Duration.ofMillis(1));
+        admissionControl.sample();
+
+        // then
+        assertDoesNotThrow(admissionControl::admit);
+    }
+}
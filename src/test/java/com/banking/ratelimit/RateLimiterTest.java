@@ -0,0 +1,133 @@
+package com.banking.ratelimit;
+
+import com.banking.error.ApiError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    @Test
+    void testTryAcquire_WhenBurstSpent_ShouldRefillAtRate() {
+        // given
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+
+        // when & then
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(50_000_000));
+        assertTrue(bucket.tryAcquire(100_000_000));
+        assertFalse(bucket.isFull(100_000_000));
+        assertTrue(bucket.isFull(300_000_000));
+    }
+
+    @Test
+    void testAcquire_WhenClientOverLimit_ShouldRejectOnlyThatClient() {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimiter rateLimiter = new RateLimiter(meterRegistry, true, 0.001, 1, 1000, 1000, "127.0.0.1", 100);
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        first.addHeader(RateLimiter.CLIENT_HEADER, "client-1");
+        MockHttpServletRequest second = new MockHttpServletRequest();
+        second.addHeader(RateLimiter.CLIENT_HEADER, "client-2");
+
+        // when
+        rateLimiter.acquire(first, "123456");
+
+        // then
+        assertSame(ApiError.RATE_LIMITED, assertThrows(ApiError.class, () -> rateLimiter.acquire(first, "654321")));
+        assertDoesNotThrow(() -> rateLimiter.acquire(second, "654321"));
+        assertEquals(1, meterRegistry.counter("banking.ratelimit.rejected", "scope", "client").count());
+    }
+
+    @Test
+    void testAcquire_WhenAccountOverLimit_ShouldRejectEveryClient() {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimiter rateLimiter = new RateLimiter(meterRegistry, true, 1000, 1000, 0.001, 1, "", 100);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        // when
+        rateLimiter.acquire(request, "123456");
+
+        // then
+        assertThrows(ApiError.class, () -> rateLimiter.acquire(request, "123456"));
+        assertDoesNotThrow(() -> rateLimiter.acquire(request, "654321"));
+        assertEquals(1, meterRegistry.counter("banking.ratelimit.rejected", "scope", "account").count());
+    }
+
+    @Test
+    void testAcquire_WhenClientHeaderFromUntrustedAddress_ShouldKeyOnRemoteAddress() {
+        // given
+        RateLimiter rateLimiter = new RateLimiter(new SimpleMeterRegistry(), true, 0.001, 1, 1000, 1000, "10.0.0.1", 100);
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        first.addHeader(RateLimiter.CLIENT_HEADER, "client-1");
+        MockHttpServletRequest second = new MockHttpServletRequest();
+        second.addHeader(RateLimiter.CLIENT_HEADER, "client-2");
+
+        // when
+        rateLimiter.acquire(first, null);
+
+        // then
+        assertThrows(ApiError.class, () -> rateLimiter.acquire(second, null));
+    }
+
+    @Test
+    void testAcquire_WhenAccountRejects_ShouldGiveClientTokenBack() {
+        // given
+        RateLimiter rateLimiter = new RateLimiter(new SimpleMeterRegistry(), true, 0.001, 2, 0.001, 1, "", 100);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        // when
+        rateLimiter.acquire(request, "123456");
+        assertThrows(ApiError.class, () -> rateLimiter.acquire(request, "123456"));
+
+        // then
+        assertDoesNotThrow(() -> rateLimiter.acquire(request, "654321"));
+    }
+
+    @Test
+    void testAcquire_WhenBucketLimitReached_ShouldShareOverflowBucket() {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimiter rateLimiter = new RateLimiter(meterRegistry, true, 0.001, 1, 1000, 1000, "", 1);
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        first.setRemoteAddr("10.0.0.1");
+        MockHttpServletRequest second = new MockHttpServletRequest();
+        second.setRemoteAddr("10.0.0.2");
+        MockHttpServletRequest third = new MockHttpServletRequest();
+        third.setRemoteAddr("10.0.0.3");
+
+        // when
+        rateLimiter.acquire(first, null);
+        rateLimiter.acquire(second, null);
+
+        // then
+        assertThrows(ApiError.class, () -> rateLimiter.acquire(third, null));
+        assertEquals(1, meterRegistry.get("banking.ratelimit.buckets").tag("scope", "client").gauge().value());
+    }
+
+    @Test
+    void testAcquire_WhenBatchAccountLacksTokens_ShouldRejectAndGiveTokensBack() {
+        // given
+        RateLimiter rateLimiter = new RateLimiter(new SimpleMeterRegistry(), true, 0.001, 3, 0.001, 1, "", 100);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        // when
+        assertThrows(ApiError.class, () -> rateLimiter.acquire(request, 3, List.of("654321", "123456", "123456")));
+
+        // then
+        assertDoesNotThrow(() -> rateLimiter.acquire(request, 3, List.of("654321", "123456")));
+        assertThrows(ApiError.class, () -> rateLimiter.acquire(request, 1, List.of()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.banking.reactive;
+
+import com.banking.account.Account;
+import com.banking.account.AccountBalance;
+import com.banking.error.ApiErrorHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveAccountControllerTest {
+
+    private WebTestClient webTestClient;
+
+    @Mock
+    private ReactiveAccountService reactiveAccountService;
+
+    @Mock
+    private ReactiveTransactionService reactiveTransactionService;
+
+    @InjectMocks
+    private ReactiveAccountController reactiveAccountController;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToController(reactiveAccountController).controllerAdvice(new ApiErrorHandler()).build();
+    }
+
+    @Test
+    void testGetAccountInfo_WhenAccountExists_ShouldReturnAccount() {
+        // given
+        when(reactiveAccountService.getAccountInfo("123456")).thenReturn(Mono.just(
+                Account.builder().id(1L).accountNumber("123456").balance(BigDecimal.valueOf(1000)).build()));
+
+        // when & then
+        webTestClient.get().uri("/api/v1/accounts/123456")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.accountNumber").isEqualTo("123456")
+                .jsonPath("$.balance").isEqualTo(1000);
+    }
+
+    @Test
+    void testGetAllAccounts_WhenPageIsFull_ShouldReturnNextCursor() {
+        // given
+        when(reactiveAccountService.getAccountsPage(null, 2)).thenReturn(Flux.just(
+                Account.builder().id(1L).accountNumber("123456").balance(BigDecimal.TEN).build(),
+                Account.builder().id(2L).accountNumber("654321").balance(BigDecimal.TEN).build()));
+
+        // when & then
+        webTestClient.get().uri("/api/v1/accounts?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(ReactiveAccountController.NEXT_CURSOR_HEADER, "2")
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2);
+    }
+
+    @Test
+    void testStreamAllAccounts_ShouldWriteOneLinePerAccount() {
+        // given
+        when(reactiveAccountService.streamAccounts()).thenReturn(Flux.just(
+                new AccountBalance(1L, "123456", BigDecimal.TEN),
+                new AccountBalance(2L, "654321", BigDecimal.ONE)));
+
+        // when & then
+        webTestClient.get().uri("/api/v1/accounts?format=ndjson")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AccountBalance.class).hasSize(2);
+    }
+}
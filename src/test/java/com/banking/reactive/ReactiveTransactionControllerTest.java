@@ -0,0 +1,116 @@
+package com.banking.reactive;
+
+import com.banking.TransactionType;
+import com.banking.error.ApiErrorHandler;
+import com.banking.idempotency.IdempotencyStore;
+import com.banking.transaction.BatchTransactionDto;
+import com.banking.transaction.BatchTransactionResult;
+import com.banking.transaction.TransactionDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveTransactionControllerTest {
+
+    private WebTestClient webTestClient;
+
+    @Mock
+    private ReactiveTransactionService reactiveTransactionService;
+
+    @InjectMocks
+    private ReactiveTransactionController reactiveTransactionController;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reactiveTransactionController, "maxBatchOperations", 2);
+        webTestClient = WebTestClient.bindToController(reactiveTransactionController).controllerAdvice(new ApiErrorHandler()).build();
+    }
+
+    @Test
+    void testDeposit_WhenValidInput_ShouldReturnOk() {
+        // given
+        when(reactiveTransactionService.deposit("123456", BigDecimal.valueOf(200))).thenReturn(Mono.empty());
+
+        // when & then
+        webTestClient.post().uri("/api/v1/transactions/deposit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TransactionDto("123456", null, BigDecimal.valueOf(200)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Deposit successful");
+    }
+
+    @Test
+    void testDeposit_WhenIdempotencyKeyGiven_ShouldReturnBadRequest() {
+        // when & then
+        webTestClient.post().uri("/api/v1/transactions/deposit")
+                .header(IdempotencyStore.HEADER, "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TransactionDto("123456", null, BigDecimal.valueOf(200)))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Idempotency keys are not supported");
+
+        verify(reactiveTransactionService, never()).deposit(anyString(), any(BigDecimal.class));
+    }
+
+    @Test
+    void testWithdraw_WhenInsufficientFunds_ShouldReturnServerError() {
+        // given
+        when(reactiveTransactionService.withdraw("123456", BigDecimal.valueOf(200)))
+                .thenReturn(Mono.error(new IllegalArgumentException("Insufficient funds")));
+
+        // when & then
+        webTestClient.post().uri("/api/v1/transactions/withdraw")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TransactionDto("123456", null, BigDecimal.valueOf(200)))
+                .exchange()
+                .expectStatus().is5xxServerError();
+    }
+
+    @Test
+    void testTransfer_WhenMissingToAccount_ShouldReturnBadRequest() {
+        // when & then
+        webTestClient.post().uri("/api/v1/transactions/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TransactionDto("123456", null, BigDecimal.valueOf(200)))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(reactiveTransactionService, never()).transfer(anyString(), anyString(), any(BigDecimal.class));
+    }
+
+    @Test
+    void testBatch_WhenValidInput_ShouldReturnResults() {
+        // given
+        List<BatchTransactionDto> operations = List.of(
+                new BatchTransactionDto(TransactionType.DEPOSIT, "123456", null, BigDecimal.valueOf(100)),
+                new BatchTransactionDto(TransactionType.WITHDRAWAL, "123456", null, BigDecimal.valueOf(500)));
+        when(reactiveTransactionService.process(operations)).thenReturn(Mono.just(List.of(
+                new BatchTransactionResult(0, true, "Deposit successful"),
+                new BatchTransactionResult(1, false, "Insufficient funds"))));
+
+        // when & then
+        webTestClient.post().uri("/api/v1/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(operations)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].success").isEqualTo(true)
+                .jsonPath("$[1].message").isEqualTo("Insufficient funds");
+    }
+}
@@ -0,0 +1,77 @@
+package com.banking.transaction;
+
+import com.banking.TransactionType;
+import com.banking.error.ApiErrorHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountTransactionControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @InjectMocks
+    private AccountTransactionController accountTransactionController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(accountTransactionController).setControllerAdvice(new ApiErrorHandler()).build();
+    }
+
+    @Test
+    void testGetHistory_WhenFiltersGiven_ShouldReturnPageWithCursor() throws Exception {
+        // given
+        Instant from = Instant.parse("2024-01-01T00:00:00Z");
+        List<TransactionView> transactions = List.of(
+                new TransactionView(42L, TransactionType.DEPOSIT, BigDecimal.TEN, "123456", null, from),
+                new TransactionView(40L, TransactionType.DEPOSIT, BigDecimal.ONE, "123456", null, from)
+        );
+        when(transactionService.getHistory("123456", 50L, TransactionType.DEPOSIT, from, null, 2)).thenReturn(transactions);
+
+        // when & then
+        mockMvc.perform(get("/api/v1/accounts/123456/transactions")
+                        .param("before", "50")
+                        .param("type", "DEPOSIT")
+                        .param("from", "2024-01-01T00:00:00Z")
+                        .param("limit", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(AccountTransactionController.NEXT_CURSOR_HEADER, "40"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(42));
+
+        verify(transactionService, times(1)).getHistory("123456", 50L, TransactionType.DEPOSIT, from, null, 2);
+    }
+
+    @Test
+    void testGetHistory_WhenInvalidLimit_ShouldReturnBadRequest() throws Exception {
+        // when & then
+        mockMvc.perform(get("/api/v1/accounts/123456/transactions")
+                        .param("limit", "1000")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionService, never()).getHistory(anyString(), any(), any(), any(), any(), anyInt());
+    }
+}
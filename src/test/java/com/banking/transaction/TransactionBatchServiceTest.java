@@ -0,0 +1,140 @@
+package com.banking.transaction;
+
+import com.banking.TransactionType;
+import com.banking.account.Account;
+import com.banking.account.AccountService;
+import com.banking.account.BalanceUpdate;
+import com.banking.balance.AccountLockStripes;
+import com.banking.balance.BalanceEngine;
+import com.banking.balance.TransferEngine;
+import com.banking.error.ApiError;
+import com.banking.journal.TransactionJournal;
+import com.banking.ledger.Ledger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionBatchServiceTest {
+
+    @Mock
+    private AccountService accountServiceMock;
+
+    @Mock
+    private Ledger ledgerMock;
+
+    @Mock
+    private TransactionRepository transactionRepositoryMock;
+
+    @Mock
+    private TransactionJournal transactionJournalMock;
+
+    @Mock
+    private PlatformTransactionManager transactionManagerMock;
+
+    private TransactionBatchService transactionBatchService;
+
+    @BeforeEach
+    void setUp() {
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        transactionBatchService = new TransactionBatchService(accountServiceMock, balanceEngine, new TransferEngine(balanceEngine),
+                transactionRepositoryMock, transactionJournalMock, transactionManagerMock, 2, 64);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testProcess_WhenMixedOperations_ShouldReturnPerItemResultsAndSaveInChunks() {
+        // given
+        when(accountServiceMock.getAccounts(anyCollection())).thenReturn(List.of(
+                Account.builder().id(1L).accountNumber("123456").balance(BigDecimal.valueOf(1000)).build(),
+                Account.builder().id(2L).accountNumber("654321").balance(BigDecimal.valueOf(500)).build()
+        ));
+        List<BatchTransactionDto> operations = List.of(
+                new BatchTransactionDto(TransactionType.DEPOSIT, "123456", null, BigDecimal.valueOf(100)),
+                new BatchTransactionDto(TransactionType.WITHDRAWAL, "654321", null, BigDecimal.valueOf(900)),
+                new BatchTransactionDto(TransactionType.TRANSFER, "123456", "654321", BigDecimal.valueOf(300)),
+                new BatchTransactionDto(TransactionType.DEPOSIT, "123456", null, BigDecimal.ZERO)
+        );
+
+        // when
+        List<BatchTransactionResult> results = transactionBatchService.process(operations);
+
+        // then
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Insufficient funds", results.get(1).getMessage());
+        assertTrue(results.get(2).isSuccess());
+        assertFalse(results.get(3).isSuccess());
+        assertEquals(3, results.get(3).getIndex());
+
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepositoryMock, times(2)).saveAll(captor.capture());
+        assertEquals(1, captor.getAllValues().get(0).size());
+        assertEquals(1, captor.getAllValues().get(1).size());
+        verify(accountServiceMock, times(1)).getAccounts(anyCollection());
+        verify(accountServiceMock, never()).getAccount(anyString());
+        verify(accountServiceMock, times(1)).updateBalances(List.of(new BalanceUpdate("654321", new BigDecimal("800.00"), 0L)));
+    }
+
+    @Test
+    void testProcess_WhenJournalFailsAfterCommit_ShouldReportNotDurable() {
+        // given
+        when(accountServiceMock.getAccounts(anyCollection())).thenReturn(List.of(
+                Account.builder().id(1L).accountNumber("123456").balance(BigDecimal.valueOf(1000)).build()));
+        when(transactionJournalMock.isEnabled()).thenReturn(true);
+        when(transactionJournalMock.append(any(), any())).thenReturn(CompletableFuture.failedFuture(ApiError.JOURNAL_UNAVAILABLE));
+        List<BatchTransactionDto> operations = List.of(
+                new BatchTransactionDto(TransactionType.DEPOSIT, "123456", null, BigDecimal.valueOf(100)),
+                new BatchTransactionDto(TransactionType.WITHDRAWAL, "123456", null, BigDecimal.valueOf(5000)));
+
+        // when
+        List<BatchTransactionResult> results = transactionBatchService.process(operations);
+
+        // then
+        assertEquals("Not durable: Transaction journal is unavailable", results.get(0).getMessage());
+        assertEquals("Insufficient funds", results.get(1).getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testProcess_WhenChunkExceedsLockStripes_ShouldSplitChunk() {
+        // given
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        transactionBatchService = new TransactionBatchService(accountServiceMock, balanceEngine, new TransferEngine(balanceEngine),
+                transactionRepositoryMock, transactionJournalMock, transactionManagerMock, 10, 2);
+        when(accountServiceMock.getAccounts(anyCollection())).thenReturn(List.of(
+                Account.builder().id(1L).accountNumber("111111").balance(BigDecimal.valueOf(100)).build(),
+                Account.builder().id(2L).accountNumber("222222").balance(BigDecimal.valueOf(100)).build(),
+                Account.builder().id(3L).accountNumber("333333").balance(BigDecimal.valueOf(100)).build()));
+        List<BatchTransactionDto> operations = List.of(
+                new BatchTransactionDto(TransactionType.DEPOSIT, "111111", null, BigDecimal.TEN),
+                new BatchTransactionDto(TransactionType.DEPOSIT, "222222", null, BigDecimal.TEN),
+                new BatchTransactionDto(TransactionType.DEPOSIT, "333333", null, BigDecimal.TEN));
+
+        // when
+        List<BatchTransactionResult> results = transactionBatchService.process(operations);
+
+        // then
+        assertTrue(results.stream().allMatch(BatchTransactionResult::isSuccess));
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepositoryMock, times(2)).saveAll(captor.capture());
+        assertEquals(2, captor.getAllValues().get(0).size());
+        assertEquals(1, captor.getAllValues().get(1).size());
+    }
+}
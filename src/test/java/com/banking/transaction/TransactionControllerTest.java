@@ -1,6 +1,14 @@
 package com.banking.transaction;
 
+import com.banking.TransactionType;
+import com.banking.error.ApiError;
+import com.banking.error.ApiErrorHandler;
+import com.banking.idempotency.IdempotencyRecordRepository;
+import com.banking.idempotency.IdempotencyStore;
+import com.banking.ratelimit.AdmissionControl;
+import com.banking.ratelimit.RateLimiter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,12 +17,18 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +39,21 @@ class TransactionControllerTest {
     @Mock
     private TransactionService transactionService;
 
+    @Mock
+    private TransactionBatchService transactionBatchService;
+
+    @Mock
+    private TransferPipeline transferPipeline;
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private RateLimiter rateLimiter;
+
+    @Mock
+    private AdmissionControl admissionControl;
+
     @InjectMocks
     private TransactionController transactionController;
 
@@ -32,13 +61,17 @@ class TransactionControllerTest {
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(transactionController).build();
+        ReflectionTestUtils.setField(transactionController, "maxBatchOperations", 2);
+        ReflectionTestUtils.setField(transactionController, "idempotencyStore",
+                new IdempotencyStore(idempotencyRecordRepository, new SimpleMeterRegistry(), true, 60_000, 24));
+        mockMvc = MockMvcBuilders.standaloneSetup(transactionController).setControllerAdvice(new ApiErrorHandler()).build();
     }
 
     @Test
     void testDeposit_WhenValidInput_ShouldReturnOk() throws Exception {
         // given
         TransactionDto transactionDto = new TransactionDto("123456", null, BigDecimal.valueOf(200));
+        when(transactionService.deposit("123456", BigDecimal.valueOf(200))).thenReturn(CompletableFuture.completedFuture(null));
 
         // when & then
         mockMvc.perform(post("/api/v1/transactions/deposit")
@@ -49,6 +82,87 @@ class TransactionControllerTest {
         verify(transactionService, times(1)).deposit("123456", BigDecimal.valueOf(200));
     }
 
+    @Test
+    void testDeposit_WhenNotDurableWithinAckTimeout_ShouldReturnAcceptedAndKeepIdempotencyKey() throws Exception {
+        // given
+        ReflectionTestUtils.setField(transactionController, "ackTimeoutMs", 10L);
+        TransactionDto transactionDto = new TransactionDto("123456", null, BigDecimal.valueOf(200));
+        when(transactionService.deposit("123456", BigDecimal.valueOf(200))).thenReturn(new CompletableFuture<>());
+
+        // when & then
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/v1/transactions/deposit")
+                            .header(IdempotencyStore.HEADER, "key-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transactionDto)))
+                    .andExpect(status().isAccepted())
+                    .andExpect(content().string("Deposit accepted"));
+        }
+
+        verify(transactionService, times(1)).deposit("123456", BigDecimal.valueOf(200));
+    }
+
+    @Test
+    void testDeposit_WhenRetriedWithIdempotencyKey_ShouldReplayOriginalResponse() throws Exception {
+        // given
+        TransactionDto transactionDto = new TransactionDto("123456", null, BigDecimal.valueOf(200));
+        when(transactionService.deposit("123456", BigDecimal.valueOf(200))).thenReturn(CompletableFuture.completedFuture(null));
+
+        // when & then
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/v1/transactions/deposit")
+                            .header(IdempotencyStore.HEADER, "key-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transactionDto)))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("Deposit successful"));
+        }
+
+        verify(transactionService, times(1)).deposit("123456", BigDecimal.valueOf(200));
+        verify(idempotencyRecordRepository, times(1)).save(any());
+    }
+
+    @Test
+    void testDeposit_WhenRetriedWithEqualAmountAtOtherScale_ShouldReplayOriginalResponse() throws Exception {
+        // given
+        when(transactionService.deposit(eq("123456"), any())).thenReturn(CompletableFuture.completedFuture(null));
+        mockMvc.perform(post("/api/v1/transactions/deposit")
+                        .header(IdempotencyStore.HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromAccount\":\"123456\",\"amount\":10}"))
+                .andExpect(status().isOk());
+
+        // when & then
+        mockMvc.perform(post("/api/v1/transactions/deposit")
+                        .header(IdempotencyStore.HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromAccount\":\"123456\",\"amount\":10.00}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyStore.REPLAYED_HEADER, "true"));
+
+        verify(transactionService, times(1)).deposit(eq("123456"), any());
+    }
+
+    @Test
+    void testDeposit_WhenIdempotencyKeyReusedForOtherRequest_ShouldReturnUnprocessableEntity() throws Exception {
+        // given
+        when(transactionService.deposit("123456", BigDecimal.valueOf(200))).thenReturn(CompletableFuture.completedFuture(null));
+        mockMvc.perform(post("/api/v1/transactions/deposit")
+                        .header(IdempotencyStore.HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TransactionDto("123456", null, BigDecimal.valueOf(200)))))
+                .andExpect(status().isOk());
+
+        // when & then
+        mockMvc.perform(post("/api/v1/transactions/deposit")
+                        .header(IdempotencyStore.HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TransactionDto("123456", null, BigDecimal.valueOf(300)))))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(transactionService, never()).deposit("123456", BigDecimal.valueOf(300));
+    }
+
     @Test
     void testDeposit_WhenInvalidAccount_ShouldReturnBadRequest() throws Exception {
         // given
@@ -81,6 +195,7 @@ class TransactionControllerTest {
     void testWithdraw_WhenValidInput_ShouldReturnOk() throws Exception {
         // given
         TransactionDto transactionDto = new TransactionDto("123456", null, BigDecimal.valueOf(200));
+        when(transactionService.withdraw("123456", BigDecimal.valueOf(200))).thenReturn(CompletableFuture.completedFuture(null));
 
         // when & then
         mockMvc.perform(post("/api/v1/transactions/withdraw")
@@ -91,6 +206,20 @@ class TransactionControllerTest {
         verify(transactionService, times(1)).withdraw("123456", BigDecimal.valueOf(200));
     }
 
+    @Test
+    void testWithdraw_WhenInsufficientFunds_ShouldReturnUnprocessableEntity() throws Exception {
+        // given
+        TransactionDto transactionDto = new TransactionDto("123456", null, BigDecimal.valueOf(200));
+        when(transactionService.withdraw("123456", BigDecimal.valueOf(200))).thenThrow(ApiError.INSUFFICIENT_FUNDS);
+
+        // when & then
+        mockMvc.perform(post("/api/v1/transactions/withdraw")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transactionDto)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(content().string("Insufficient funds"));
+    }
+
     @Test
     void testWithdraw_WhenInvalidAccount_ShouldReturnBadRequest() throws Exception {
         // given
@@ -123,6 +252,7 @@ class TransactionControllerTest {
     void testTransfer_WhenValidInput_ShouldReturnOk() throws Exception {
         // given
         TransactionDto transactionDto = new TransactionDto("123456", "654321", BigDecimal.valueOf(200));
+        when(transactionService.transfer("123456", "654321", BigDecimal.valueOf(200))).thenReturn(CompletableFuture.completedFuture(null));
 
         // when & then
         mockMvc.perform(post("/api/v1/transactions/transfer")
@@ -133,6 +263,53 @@ class TransactionControllerTest {
         verify(transactionService, times(1)).transfer("123456", "654321", BigDecimal.valueOf(200));
     }
 
+    @Test
+    void testTransfer_WhenPipelineTransferFails_ShouldReturnItsError() throws Exception {
+        // given
+        TransactionDto transactionDto = new TransactionDto("123456", "654321", BigDecimal.valueOf(200));
+        when(transferPipeline.isEnabled()).thenReturn(true);
+        when(transferPipeline.submit("123456", "654321", BigDecimal.valueOf(200)))
+                .thenReturn(CompletableFuture.failedFuture(ApiError.INSUFFICIENT_FUNDS));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/transactions/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transactionDto)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void testTransfer_WhenPipelineIsFull_ShouldReturnTooManyRequests() throws Exception {
+        // given
+        TransactionDto transactionDto = new TransactionDto("123456", "654321", BigDecimal.valueOf(200));
+        when(transferPipeline.isEnabled()).thenReturn(true);
+        when(transferPipeline.submit("123456", "654321", BigDecimal.valueOf(200)))
+                .thenReturn(CompletableFuture.failedFuture(ApiError.OVERLOADED));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/transactions/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transactionDto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void testTransfer_WhenPipelineEnabled_ShouldSubmitToPipeline() throws Exception {
+        // given
+        TransactionDto transactionDto = new TransactionDto("123456", "654321", BigDecimal.valueOf(200));
+        when(transferPipeline.isEnabled()).thenReturn(true);
+        when(transferPipeline.submit("123456", "654321", BigDecimal.valueOf(200))).thenReturn(CompletableFuture.completedFuture(null));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/transactions/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transactionDto)))
+                .andExpect(status().isOk());
+
+        verify(transactionService, never()).transfer(anyString(), anyString(), any(BigDecimal.class));
+    }
+
     @Test
     void testTransfer_WhenInvalidAccount_ShouldReturnBadRequest() throws Exception {
         // given
@@ -174,4 +351,102 @@ class TransactionControllerTest {
 
         verify(transactionService, never()).transfer(anyString(), anyString(), any(BigDecimal.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTransfer_WhenTargetIsBucketRow_ShouldReturnBadRequest() throws Exception {
+        // given
+        TransactionDto transactionDto = new TransactionDto("123456", "123456#1", BigDecimal.valueOf(200));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/transactions/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transactionDto)))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionService, never()).transfer(anyString(), anyString(), any(BigDecimal.class));
+    }
+
+    @Test
+    void testBatch_WhenValidInput_ShouldReturnPerItemResults() throws Exception {
+        // given
+        List<BatchTransactionDto> operations = List.of(
+                new BatchTransactionDto(TransactionType.DEPOSIT, "123456", null, BigDecimal.valueOf(200)),
+                new BatchTransactionDto(TransactionType.WITHDRAWAL, "123456", null, BigDecimal.valueOf(5000))
+        );
+        when(transactionBatchService.process(anyList())).thenReturn(List.of(
+                new BatchTransactionResult(0, true, "Deposit successful"),
+                new BatchTransactionResult(1, false, "Insufficient funds")
+        ));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].message").value("Insufficient funds"));
+
+        verify(transactionBatchService, times(1)).process(anyList());
+    }
+
+    @Test
+    void testBatch_WhenEmpty_ShouldReturnBadRequest() throws Exception {
+        // when & then
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionBatchService, never()).process(anyList());
+    }
+
+    @Test
+    void testBatch_WhenTooManyOperations_ShouldReturnPayloadTooLarge() throws Exception {
+        // given
+        BatchTransactionDto operation = new BatchTransactionDto(TransactionType.DEPOSIT, "123456", null, BigDecimal.ONE);
+
+        // when & then
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(operation, operation, operation))))
+                .andExpect(status().isPayloadTooLarge());
+
+        verify(transactionBatchService, never()).process(anyList());
+    }
+
+    @Test
+    void testDeposit_WhenRateLimited_ShouldReturnTooManyRequests() throws Exception {
+        // given
+        TransactionDto transactionDto = new TransactionDto("123456", null, BigDecimal.valueOf(200));
+        doThrow(ApiError.RATE_LIMITED).when(rateLimiter).acquire(any(), eq("123456"));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/transactions/deposit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transactionDto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(content().string("Rate limit exceeded"));
+
+        verify(transactionService, never()).deposit(any(), any());
+    }
+
+    @Test
+    void testBatch_WhenRateLimited_ShouldChargeEveryOperation() throws Exception {
+        // given
+        List<BatchTransactionDto> operations = List.of(
+                new BatchTransactionDto(TransactionType.DEPOSIT, "123456", null, BigDecimal.valueOf(200)),
+                new BatchTransactionDto(TransactionType.TRANSFER, "654321", "123456", BigDecimal.valueOf(50))
+        );
+        doThrow(ApiError.RATE_LIMITED).when(rateLimiter).acquire(any(), eq(2), eq(List.of("123456", "654321")));
+
+        // when & then
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andExpect(status().isTooManyRequests());
+
+        verify(transactionBatchService, never()).process(anyList());
+    }
+}
@@ -0,0 +1,166 @@
+package com.banking.transaction;
+
+import com.banking.TransactionType;
+import com.banking.error.ApiError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionLogTest {
+
+    @TempDir
+    private Path directory;
+
+    private TransactionRepository transactionRepositoryMock;
+    private TransactionLog transactionLog;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepositoryMock = mock(TransactionRepository.class);
+        transactionLog = new TransactionLog(transactionRepositoryMock, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), true, TransactionLog.Backpressure.REJECT, TransactionLog.Durability.WRITTEN,
+                0, 1, 100, 10, 2, directory.resolve("transactions.log.dead"));
+        transactionLog.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        transactionLog.destroy();
+    }
+
+    @Test
+    void testAppend_WhenDurabilityWritten_ShouldCompleteOnceRowIsInserted() throws Exception {
+        // when
+        CompletableFuture<Void> written = transactionLog.append(deposit());
+
+        // then
+        written.get(5, TimeUnit.SECONDS);
+        verify(transactionRepositoryMock).saveAll(anyList());
+    }
+
+    @Test
+    void testAppend_WhenQueueIsFull_ShouldRejectUntilTransactionCompletes() throws Exception {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+        CompletableFuture<Void> first = transactionLog.append(deposit());
+
+        // when
+        ApiError rejected = assertThrows(ApiError.class, () -> transactionLog.append(deposit()));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // then
+        assertSame(ApiError.TRANSACTION_LOG_FULL, rejected);
+        assertTrue(first.isCancelled());
+        transactionLog.append(deposit()).get(5, TimeUnit.SECONDS);
+        verify(transactionRepositoryMock, timeout(5000).times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void testAppend_WhenTransactionCommits_ShouldQueueRowOnlyAfterCommit() throws Exception {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        CompletableFuture<Void> written = transactionLog.append(deposit());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        Thread.sleep(200);
+
+        // then
+        assertFalse(written.isDone());
+        verify(transactionRepositoryMock, never()).saveAll(anyList());
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+        written.get(5, TimeUnit.SECONDS);
+        verify(transactionRepositoryMock).saveAll(anyList());
+    }
+
+    @Test
+    void testAppend_WhenSlotReserved_ShouldTakeTheReservation() throws Exception {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+        transactionLog.reserve();
+        assertThrows(ApiError.class, () -> transactionLog.reserve());
+
+        // when
+        CompletableFuture<Void> written = transactionLog.append(deposit());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        // then
+        written.get(5, TimeUnit.SECONDS);
+        verify(transactionRepositoryMock).saveAll(anyList());
+    }
+
+    @Test
+    void testReserve_WhenTransactionRollsBack_ShouldReleaseTheSlot() throws Exception {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+        transactionLog.reserve();
+
+        // when
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // then
+        transactionLog.append(deposit()).get(5, TimeUnit.SECONDS);
+        verify(transactionRepositoryMock, timeout(5000).times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void testAppend_WhenRowKeepsFailing_ShouldDeadLetterItAndReleaseItsSlot() throws Exception {
+        // given
+        when(transactionRepositoryMock.saveAll(anyList()))
+                .thenThrow(new IllegalStateException("value too long"))
+                .thenThrow(new IllegalStateException("value too long"))
+                .thenReturn(List.of());
+
+        // when
+        transactionLog.append(deposit()).get(5, TimeUnit.SECONDS);
+        transactionLog.append(deposit()).get(5, TimeUnit.SECONDS);
+
+        // then
+        assertEquals(List.of("DEPOSIT,10,123456,null"), Files.readAllLines(directory.resolve("transactions.log.dead")));
+        verify(transactionRepositoryMock, times(3)).saveAll(anyList());
+    }
+
+    private static Transaction deposit() {
+        return Transaction.builder()
+                .type(TransactionType.DEPOSIT)
+                .amount(BigDecimal.TEN)
+                .accountNumber("123456")
+                .build();
+    }
+}
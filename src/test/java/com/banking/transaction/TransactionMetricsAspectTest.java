@@ -0,0 +1,61 @@
+package com.banking.transaction;
+
+import com.banking.error.ApiError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionMetricsAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionService transactionServiceMock;
+    private TransactionService proxy;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transactionServiceMock = mock(TransactionService.class);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(transactionServiceMock);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new TransactionMetricsAspect(new TransactionMetrics(meterRegistry)));
+        proxy = proxyFactory.getProxy();
+    }
+
+    @Test
+    void testTime_WhenOperationSucceeds_ShouldRecordSuccess() {
+        // given
+        when(transactionServiceMock.deposit("123456", BigDecimal.TEN)).thenReturn(CompletableFuture.completedFuture(null));
+
+        // when
+        proxy.deposit("123456", BigDecimal.TEN).join();
+
+        // then
+        assertEquals(1, meterRegistry.timer(TransactionMetrics.TIMER, "operation", "deposit", "outcome", "success").count());
+    }
+
+    @Test
+    void testTime_WhenOperationFails_ShouldRecordOutcome() {
+        // given
+        when(transactionServiceMock.withdraw("123456", BigDecimal.TEN)).thenThrow(ApiError.INSUFFICIENT_FUNDS);
+        when(transactionServiceMock.transfer("123456", "654321", BigDecimal.TEN))
+                .thenReturn(CompletableFuture.failedFuture(ApiError.ACCOUNT_NOT_FOUND));
+
+        // when
+        assertThrows(ApiError.class, () -> proxy.withdraw("123456", BigDecimal.TEN));
+        assertThrows(CompletionException.class, () -> proxy.transfer("123456", "654321", BigDecimal.TEN).join());
+
+        // then
+        assertEquals(1, meterRegistry.timer(TransactionMetrics.TIMER, "operation", "withdraw", "outcome", "insufficient_funds").count());
+        assertEquals(1, meterRegistry.timer(TransactionMetrics.TIMER, "operation", "transfer", "outcome", "not_found").count());
+    }
+}
@@ -1,17 +1,31 @@
 package com.banking.transaction;
 
+import com.banking.TransactionType;
 import com.banking.account.Account;
 import com.banking.account.AccountService;
+import com.banking.account.BalanceUpdate;
+import com.banking.balance.AccountLockStripes;
+import com.banking.balance.BalanceEngine;
+import com.banking.balance.TransferEngine;
+import com.banking.error.ApiError;
+import com.banking.journal.TransactionJournal;
+import com.banking.ledger.Ledger;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -19,26 +33,40 @@ class TransactionServiceTest {
     @Mock
     private AccountService accountServiceMock;
 
+    @Mock
+    private Ledger ledgerMock;
+
     @Mock
     private TransactionRepository transactionRepositoryMock;
 
-    @InjectMocks
+    @Mock
+    private TransactionJournal transactionJournalMock;
+
+    @Mock
+    private TransactionLog transactionLogMock;
+
     private TransactionService transactionServiceMock;
 
+    @BeforeEach
+    void setUp() {
+        BalanceEngine balanceEngine = new BalanceEngine(accountServiceMock, new AccountLockStripes(16), ledgerMock, false, false, 1000);
+        transactionServiceMock = new TransactionService(
+                transactionRepositoryMock, accountServiceMock, balanceEngine, new TransferEngine(balanceEngine), transactionJournalMock, transactionLogMock);
+    }
+
     @Test
     void testDeposit_WhenSuccess_Should() {
         //given
         Account account = Account.builder().accountNumber("123456").balance(BigDecimal.valueOf(1000)).build();
 
         when(accountServiceMock.getAccount("123456")).thenReturn(account);
-        when(accountServiceMock.updateAccount(any(Account.class))).thenReturn(account);
 
         //when
         transactionServiceMock.deposit("123456", BigDecimal.valueOf(200));
 
         //then
         verify(accountServiceMock, times(1)).getAccount("123456");
-        verify(accountServiceMock, times(1)).updateAccount(any(Account.class));
+        verify(accountServiceMock, times(1)).updateBalances(List.of(new BalanceUpdate("123456", new BigDecimal("1200.00"), 0L)));
         verify(transactionRepositoryMock, times(1)).save(any(Transaction.class));
     }
 
@@ -48,14 +76,13 @@ class TransactionServiceTest {
         Account account = Account.builder().accountNumber("123456").balance(BigDecimal.valueOf(1000)).build();
 
         when(accountServiceMock.getAccount("123456")).thenReturn(account);
-        when(accountServiceMock.updateAccount(any(Account.class))).thenReturn(account);
 
         //when
         transactionServiceMock.withdraw("123456", BigDecimal.valueOf(500));
 
         //then
         verify(accountServiceMock, times(1)).getAccount("123456");
-        verify(accountServiceMock, times(1)).updateAccount(any(Account.class));
+        verify(accountServiceMock, times(1)).updateBalances(List.of(new BalanceUpdate("123456", new BigDecimal("500.00"), 0L)));
         verify(transactionRepositoryMock, times(1)).save(any(Transaction.class));
     }
 
@@ -67,12 +94,12 @@ class TransactionServiceTest {
         when(accountServiceMock.getAccount("123456")).thenReturn(account);
 
         //then
-        assertThrows(IllegalArgumentException.class, () ->
+        assertThrows(ApiError.class, () ->
                 transactionServiceMock.withdraw("123456", BigDecimal.valueOf(2000))
         );
 
         verify(accountServiceMock, times(1)).getAccount("123456");
-        verify(accountServiceMock, never()).updateAccount(any(Account.class));
+        verify(accountServiceMock, never()).updateBalances(anyList());
         verify(transactionRepositoryMock, never()).save(any(Transaction.class));
     }
 
@@ -84,15 +111,55 @@ class TransactionServiceTest {
 
         when(accountServiceMock.getAccount("123456")).thenReturn(accountFrom);
         when(accountServiceMock.getAccount("654321")).thenReturn(accountTo);
-        when(accountServiceMock.updateAccount(any(Account.class))).thenReturn(accountFrom).thenReturn(accountTo);
 
         //when
         transactionServiceMock.transfer("123456", "654321", BigDecimal.valueOf(300));
 
         //then
-        verify(accountServiceMock, times(2)).getAccount("123456");
+        verify(accountServiceMock, times(1)).getAccount("123456");
         verify(accountServiceMock, times(1)).getAccount("654321");
-        verify(accountServiceMock, times(2)).updateAccount(any(Account.class));
-        verify(transactionRepositoryMock, times(3)).save(any(Transaction.class));
+        verify(accountServiceMock, times(1)).updateBalances(List.of(new BalanceUpdate("123456", new BigDecimal("700.00"), 0L)));
+        verify(accountServiceMock, times(1)).updateBalances(List.of(new BalanceUpdate("654321", new BigDecimal("800.00"), 0L)));
+        verify(transactionRepositoryMock, times(1)).save(argThat(transaction ->
+                transaction.getType() == TransactionType.TRANSFER
+                        && "123456".equals(transaction.getAccountNumber())
+                        && "654321".equals(transaction.getTargetAccountNumber())));
+    }
+
+    @Test
+    void testTransfer_WhenInsufficientFunds_ShouldNotCreditTarget() {
+        //given
+        Account accountFrom = Account.builder().accountNumber("123456").balance(BigDecimal.valueOf(100)).build();
+        Account accountTo = Account.builder().accountNumber("654321").balance(BigDecimal.valueOf(500)).build();
+
+        when(accountServiceMock.getAccount("123456")).thenReturn(accountFrom);
+        when(accountServiceMock.getAccount("654321")).thenReturn(accountTo);
+
+        //then
+        assertThrows(ApiError.class, () ->
+                transactionServiceMock.transfer("123456", "654321", BigDecimal.valueOf(300))
+        );
+
+        verify(accountServiceMock, never()).updateBalances(anyList());
+        verify(transactionRepositoryMock, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void testGetHistory_ShouldMergeOutgoingAndIncomingNewestFirst() {
+        //given
+        when(transactionRepositoryMock.findHistory(eq("123456"), eq(Long.MAX_VALUE), isNull(), isNull(), isNull(), any(Limit.class)))
+                .thenReturn(List.of(transaction(9L), transaction(5L), transaction(2L)));
+        when(transactionRepositoryMock.findIncomingHistory(eq("123456"), eq(Long.MAX_VALUE), isNull(), isNull(), isNull(), any(Limit.class)))
+                .thenReturn(List.of(transaction(7L), transaction(3L)));
+
+        //when
+        List<TransactionView> history = transactionServiceMock.getHistory("123456", null, null, null, null, 3);
+
+        //then
+        assertEquals(List.of(9L, 7L, 5L), history.stream().map(TransactionView::id).toList());
+    }
+
+    private static TransactionView transaction(Long id) {
+        return new TransactionView(id, TransactionType.DEPOSIT, BigDecimal.ONE, "123456", null, Instant.EPOCH);
     }
-}
\ No newline at end of file
+}
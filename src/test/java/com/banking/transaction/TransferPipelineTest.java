@@ -0,0 +1,91 @@
+package com.banking.transaction;
+
+import com.banking.error.ApiError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransferPipelineTest {
+
+    private TransactionBatchService transactionBatchServiceMock;
+    private SimpleMeterRegistry meterRegistry;
+    private TransferPipeline transferPipeline;
+
+    @BeforeEach
+    void setUp() {
+        transactionBatchServiceMock = mock(TransactionBatchService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        transferPipeline = new TransferPipeline(transactionBatchServiceMock, new TransactionMetrics(meterRegistry), meterRegistry, true, 50_000, 8, 1, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        transferPipeline.destroy();
+    }
+
+    @Test
+    void testSubmit_WhenConcurrent_ShouldCommitTogetherAndIsolateFailures() throws Exception {
+        // given
+        when(transactionBatchServiceMock.process(anyList())).thenReturn(List.of(
+                new BatchTransactionResult(0, true, "Transfer successful"),
+                new BatchTransactionResult(1, false, "Insufficient funds", ApiError.INSUFFICIENT_FUNDS),
+                new BatchTransactionResult(2, true, "Transfer successful")));
+        transferPipeline.afterPropertiesSet();
+
+        // when
+        CompletableFuture<Void> first = transferPipeline.submit("123456", "654321", BigDecimal.valueOf(10));
+        CompletableFuture<Void> second = transferPipeline.submit("111111", "654321", BigDecimal.valueOf(1000));
+        CompletableFuture<Void> third = transferPipeline.submit("222222", "654321", BigDecimal.valueOf(20));
+
+        // then
+        first.get(5, TimeUnit.SECONDS);
+        third.get(5, TimeUnit.SECONDS);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertSame(ApiError.INSUFFICIENT_FUNDS, failure.getCause());
+        verify(transactionBatchServiceMock, times(1)).process(anyList());
+        assertEquals(1, meterRegistry.counter("banking.transfer.pipeline.commits").count());
+    }
+
+    @Test
+    void testSubmit_WhenBatchFails_ShouldFailEveryTransferOfTheBatch() {
+        // given
+        when(transactionBatchServiceMock.process(anyList())).thenThrow(new IllegalStateException("Could not acquire account lock"));
+        transferPipeline.afterPropertiesSet();
+
+        // when
+        CompletableFuture<Void> first = transferPipeline.submit("123456", "654321", BigDecimal.valueOf(10));
+        CompletableFuture<Void> second = transferPipeline.submit("111111", "654321", BigDecimal.valueOf(10));
+
+        // then
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        assertEquals(0, meterRegistry.counter("banking.transfer.pipeline.commits").count());
+    }
+
+    @Test
+    void testSubmit_WhenNotStarted_ShouldRejectTransfer() {
+        // when
+        CompletableFuture<Void> transfer = transferPipeline.submit("123456", "654321", BigDecimal.valueOf(10));
+
+        // then
+        CompletionException failure = assertThrows(CompletionException.class, transfer::join);
+        assertSame(ApiError.OVERLOADED, failure.getCause());
+    }
+}